@@ -1,3 +1,8 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
 /**
  * Implementation of the List interface using a resizable array
  * An arraylist provides a dynamic array implementation (its size can grow or shrink as elements are added or removed)
@@ -91,6 +96,60 @@ public class ArrayList<T> implements List<T> {
         return copy;
     }
 
+    /**
+     * Passes every element to an action in list order
+     * Reads the array directly without bounds checks
+     *
+     * @param action action to run on each element
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (int i = 0; i < size; i++) { action.accept(arr[i]); }
+    }
+
+    /**
+     * Passes every element and its position to an action in list order
+     * Reads the array directly without bounds checks
+     *
+     * @param action action to run on each element and its position
+     */
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super T> action) {
+        for (int i = 0; i < size; i++) { action.accept(arr[i], i); }
+    }
+
+    /**
+     * Copies the elements into an array in list order
+     *
+     * @param dest array to copy the elements into, reused if it can hold every element
+     * @return array holding the elements in its first size() entries
+     */
+    @Override
+    public T[] toArray(T[] dest) {
+        if (dest.length < size) { dest = Arrays.copyOf(dest, size); }
+        System.arraycopy(arr, 0, dest, 0, size);
+        return dest;
+    }
+
+    /**
+     * Removes every element matching a filter in one pass, keeping the order of the others
+     * Survivors are moved down once instead of shifting the tail for every removed element
+     *
+     * @param filter returns true for elements to remove
+     * @return number of elements removed
+     */
+    @Override
+    public int removeIf(Predicate<? super T> filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!filter.test(arr[i])) { arr[kept++] = arr[i]; }
+        }
+        for (int i = kept; i < size; i++) { arr[i] = null; }
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
     /**
      * Returns the number of elements in the list
      *
@@ -0,0 +1,139 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Repeatable benchmark that fails when a backend gets slower than its stored baseline
+ * Every backend runs the same seeded workload at a fixed body count, and its median ticks per second over a
+ * few repeats is compared with the baseline file. A backend fails when it drops more than the threshold below
+ * its baseline. Recording writes the measured rates as the new baseline.
+ *
+ * The baseline file is a property file with one ticks-per-second entry per backend and an optional threshold,
+ * a fraction such as 0.2 for 20%. Baselines only mean something on the machine that recorded them, so the
+ * default file is not checked in. A CI machine can pass the path of a baseline it keeps, and a check without a
+ * baseline fails instead of silently recording one.
+ */
+public class BenchmarkGate {
+    /** File the baseline is read from and recorded to when no other path is given */
+    static final String BASELINE_FILE = "benchmark_baseline.properties";
+    /** Seed of the workload, fixed so every run moves the same comets */
+    static final long SEED = 42;
+    /** Body count held by the array-backed lists and the mapped store, so a tick takes about a millisecond */
+    static final int BODIES = 50_000;
+    /** Body count held by the linked lists, smaller since appending walks the whole list */
+    static final int LINKED_BODIES = 5_000;
+    /** Ticks run before timing so the JIT and the body count settle */
+    static final int WARMUP_TICKS = 200;
+    /** Ticks timed per repeat */
+    static final int TICKS = 500;
+    /** Repeats per backend, the median counts */
+    static final int REPEATS = 5;
+    /** Allowed slowdown when the baseline file does not set one */
+    static final double DEFAULT_THRESHOLD = 0.2;
+
+    /**
+     * Measures every backend and either records the baseline or compares against it
+     * @param base configuration to run, its spawning, seed and storage settings are overridden
+     * @param record true to write the measured rates as the new baseline
+     * @param baselineFile path of the baseline file
+     * @return true if the baseline was recorded or no backend regressed, false if the baseline is missing
+     */
+    public static boolean run(SimulationConfig base, boolean record, String baselineFile) {
+        if (!record && !new File(baselineFile).exists()) {
+            System.err.println("No baseline in " + baselineFile + ", run --bench-gate --record on this machine first"
+                    + " or pass a stored baseline with --baseline <file>");
+            return false;
+        }
+        SimulationConfig fixed = base.with("seed", String.valueOf(SEED)).with("gen_x", "0").with("gen_y", "0")
+                .with("spawner_threads", "0").with("hot_reload", "false").with("body_store", "heap")
+                .with("morton_interval", "0");
+        Properties measured = new Properties();
+        for (String backend : StressMode.BACKENDS) {
+            boolean linked = backend.equals("single") || backend.equals("double") || backend.equals("dummyhead");
+            double rate = measure(fixed.with("list", backend), linked ? LINKED_BODIES : BODIES);
+            measured.setProperty(backend, String.format("%.1f", rate));
+        }
+        measured.setProperty("mapped", String.format("%.1f", measure(fixed.with("body_store", "mapped"), BODIES)));
+
+        if (record) {
+            try (OutputStream os = new FileOutputStream(baselineFile)) {
+                measured.store(os, "Ticks per second at " + BODIES + " bodies (" + LINKED_BODIES
+                        + " for linked lists), seed " + SEED);
+            } catch (IOException e) {
+                System.err.println("Error writing baseline: " + e.getMessage());
+                return false;
+            }
+            System.out.println("Baseline written to " + baselineFile);
+            measured.stringPropertyNames().stream().sorted()
+                    .forEach(key -> System.out.printf("%-10s %10s ticks/s%n", key, measured.getProperty(key)));
+            return true;
+        }
+
+        Properties baseline = new Properties();
+        try (InputStream is = new FileInputStream(baselineFile)) {
+            baseline.load(is);
+        } catch (IOException e) {
+            System.err.println("Error reading baseline: " + e.getMessage());
+            return false;
+        }
+        double threshold = Double.parseDouble(baseline.getProperty("threshold",
+                String.valueOf(DEFAULT_THRESHOLD)).trim());
+        boolean passed = true;
+        System.out.printf("%n%-10s %12s %12s %9s%n", "backend", "baseline/s", "measured/s", "change");
+        for (String backend : measured.stringPropertyNames().stream().sorted().toArray(String[]::new)) {
+            double now = Double.parseDouble(measured.getProperty(backend));
+            String stored = baseline.getProperty(backend);
+            if (stored == null) {
+                System.out.printf("%-10s %12s %12.1f %9s%n", backend, "-", now, "new");
+                continue;
+            }
+            double before = Double.parseDouble(stored.trim());
+            double change = (now - before) / before;
+            boolean regressed = change < -threshold;
+            passed &= !regressed;
+            System.out.printf("%-10s %12.1f %12.1f %+8.1f%%%s%n", backend, before, now, change * 100,
+                    regressed ? "  REGRESSED" : "");
+        }
+        System.out.printf("%s (threshold %.0f%%)%n", passed ? "Benchmark gate passed" : "Benchmark gate failed",
+                threshold * 100);
+        return passed;
+    }
+
+    /**
+     * Runs the workload on one configuration
+     * @param config configuration with the backend to measure
+     * @param bodies body count to hold
+     * @return median ticks per second over the repeats
+     */
+    static double measure(SimulationConfig config, int bodies) {
+        double[] rates = new double[REPEATS];
+        for (int r = 0; r < REPEATS; r++) {
+            MassiveMotion mm = new MassiveMotion(config, false);
+            try {
+                for (int t = 0; t < WARMUP_TICKS; t++) { step(mm, bodies); }
+                long start = System.nanoTime();
+                for (int t = 0; t < TICKS; t++) { step(mm, bodies); }
+                rates[r] = TICKS / ((System.nanoTime() - start) / 1e9);
+            } finally {
+                if (mm.bodyStore != null) { mm.bodyStore.close(); }
+            }
+        }
+        Arrays.sort(rates);
+        return rates[REPEATS / 2];
+    }
+
+    /**
+     * Tops the simulation up to the workload body count and runs one tick
+     * @param mm simulation to advance
+     * @param bodies body count to hold
+     */
+    private static void step(MassiveMotion mm, int bodies) {
+        mm.spawnComets((int) (bodies - mm.bodyCount()));
+        mm.tick();
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Implementation of the List interface that lets many threads append while one thread reads and removes
+ * Each producer thread appends into its own buffer, and the buffers are merged into the ArrayList's array by
+ * mergePending() at the start of a tick. The update thread reads the main array without taking any lock,
+ * and producers only ever wait for the short time their own buffer is being merged.
+ *
+ * add(T) may be called from any thread. Every other method, including mergePending(), must only be called
+ * from the single thread that owns the list (the update loop), and elements appended by add(T) are not
+ * visible to it until the next merge.
+ *
+ * @param <T> Type of elements stored in the list
+ */
+public class ConcurrentBodyList<T> extends ArrayList<T> {
+    /** Append buffer of every thread that has added to the list */
+    private final ConcurrentLinkedQueue<Buffer<T>> buffers;
+    /** Append buffer of the calling thread */
+    private final ThreadLocal<Buffer<T>> localBuffer;
+
+    /**
+     * Append buffer owned by one producer thread
+     * Guarded by its own monitor, which is only contended while the buffer is being merged
+     *
+     * @param <T> the type of data stored in this buffer
+     */
+    private static class Buffer<T> {
+        T[] items;
+        int count;
+
+        /**
+         * Constructs an empty buffer with an initial capacity of 16
+         */
+        Buffer() {
+            items = (T[]) new Object[16];
+            count = 0;
+        }
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of 10
+     */
+    public ConcurrentBodyList() {
+        buffers = new ConcurrentLinkedQueue<>();
+        localBuffer = ThreadLocal.withInitial(() -> {
+            Buffer<T> buffer = new Buffer<>();
+            buffers.add(buffer);
+            return buffer;
+        });
+    }
+
+    /**
+     * Moves every buffered element into the list, in the order each thread added them
+     * Called by the owning thread at a tick boundary
+     *
+     * @return number of elements merged
+     */
+    public int mergePending() {
+        int merged = 0;
+        for (Buffer<T> buffer : buffers) {
+            synchronized (buffer) {
+                if (buffer.count == 0) { continue; }
+                while (arr.length < size + buffer.count) { grow_array(); }
+                System.arraycopy(buffer.items, 0, arr, size, buffer.count);
+                size += buffer.count;
+                merged += buffer.count;
+                for (int i = 0; i < buffer.count; i++) { buffer.items[i] = null; }
+                buffer.count = 0;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Adds an element to the calling thread's buffer, it joins the end of the list at the next merge
+     * Safe to call from any thread
+     *
+     * @param element the element to add
+     * @return true
+     */
+    @Override
+    public boolean add(T element) {
+        Buffer<T> buffer = localBuffer.get();
+        synchronized (buffer) {
+            if (buffer.count == buffer.items.length) {
+                T[] grown = (T[]) new Object[buffer.items.length * 2];
+                System.arraycopy(buffer.items, 0, grown, 0, buffer.count);
+                buffer.items = grown;
+            }
+            buffer.items[buffer.count++] = element;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+/**
+ * Watches a configuration file on a background thread and hands every valid new version to a publisher
+ * Invalid edits are reported and ignored so a half-saved file never reaches the simulation
+ */
+public class ConfigWatcher implements Runnable {
+    /** Time to wait after a change so an editor can finish writing the file, in ms */
+    private static final int SETTLE_DELAY = 100;
+
+    private final Path file;
+    private final Consumer<SimulationConfig> publisher;
+
+    /**
+     * Constructs a watcher for a configuration file
+     * @param propFile name of the property file to watch
+     * @param publisher receives each new configuration, called on the watcher thread
+     */
+    public ConfigWatcher(String propFile, Consumer<SimulationConfig> publisher) {
+        file = Paths.get(propFile).toAbsolutePath();
+        this.publisher = publisher;
+    }
+
+    /**
+     * Starts watching on a daemon thread
+     * @return true if the watcher started, false if the file is not on the file system
+     */
+    public boolean start() {
+        if (!Files.isRegularFile(file)) { return false; }
+        Thread thread = new Thread(this, "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Waits for changes to the directory holding the file and reloads when the file itself changed
+     */
+    @Override
+    public void run() {
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // An overflow means events were lost, so the file may have changed
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    Thread.sleep(SETTLE_DELAY);
+                    // Editors often write a file in several steps, only reload once for all of them
+                    WatchKey pending;
+                    while ((pending = watcher.poll()) != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Stopped watching config file: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads the file again and publishes it if it is valid
+     */
+    private void reload() {
+        try {
+            publisher.accept(SimulationConfig.load(file.toString()));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ignoring config file change: " + e.getMessage());
+        }
+    }
+}
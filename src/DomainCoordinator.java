@@ -0,0 +1,315 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+
+/**
+ * Runs one simulation split across several worker processes
+ * The canvas is cut into vertical strips and each strip is owned by a DomainWorker process. The coordinator
+ * owns the stars and spawns comets, and every tick it sends each worker the stars and the comets that crossed
+ * into its strip, then collects the comets that left each strip and routes them to their new owner for the
+ * next tick. All connections are loopback sockets, so the workers run on this machine.
+ */
+public class DomainCoordinator {
+    /** Ticks between progress lines when running headless */
+    static final int REPORT_INTERVAL = 100;
+    /** Time to wait for each worker process to connect, in ms */
+    static final int CONNECT_TIMEOUT = 30_000;
+
+    private final SimulationConfig config;
+    private final int regions;
+    private final Process[] workers;
+    private final DataInputStream[] in;
+    private final DataOutputStream[] out;
+    private final Random rand;
+    /** Stars as x, y, size, velocity x, velocity y, moved here and sent to every worker */
+    private final int[][] stars;
+    private final double[] star_mass;
+    /** Comets waiting to be sent to each strip on the next tick */
+    private DomainWorker.BodyBuffer[] incoming;
+    /** Number of comets in each strip after the last tick */
+    private final int[] counts;
+    /** Latest positions and sizes of every comet, three floats per comet, for drawing */
+    private volatile float[] snapshot = new float[0];
+
+    /**
+     * Starts the worker processes and waits for all of them to connect
+     * @param config configuration of the simulation
+     * @param regions number of worker processes
+     * @throws IOException if a worker cannot be started or does not connect
+     * @throws IllegalArgumentException if regions is less than 1
+     */
+    public DomainCoordinator(SimulationConfig config, int regions) throws IOException {
+        if (regions < 1) { throw new IllegalArgumentException("Need at least 1 worker, got " + regions); }
+        this.config = config;
+        this.regions = regions;
+        workers = new Process[regions];
+        in = new DataInputStream[regions];
+        out = new DataOutputStream[regions];
+        rand = config.seed == null ? new Random() : new Random(config.seed);
+        stars = new int[][] { { config.star_position_x, config.star_position_y, config.star_size,
+                config.star_velocity_x, config.star_velocity_y } };
+        star_mass = new double[] { config.star_mass };
+        incoming = newBuffers();
+        counts = new int[regions];
+
+        StringWriter properties = new StringWriter();
+        config.toProperties().store(properties, null);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        try (ServerSocket server = new ServerSocket(0, regions, InetAddress.getLoopbackAddress())) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::destroyWorkers));
+            // A worker that fails to start never connects, so give up instead of waiting forever
+            server.setSoTimeout(CONNECT_TIMEOUT);
+            for (int i = 0; i < regions; i++) {
+                workers[i] = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "DomainWorker",
+                        String.valueOf(server.getLocalPort()), String.valueOf(i)).inheritIO().start();
+            }
+            for (int i = 0; i < regions; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                DataInputStream worker_in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                int region = worker_in.readInt();
+                in[region] = worker_in;
+                out[region] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out[region].writeUTF(properties.toString());
+                out[region].writeInt(regions);
+                out[region].flush();
+            }
+        } catch (IOException e) {
+            destroyWorkers();
+            throw e;
+        }
+
+        // Starting comets with random edge velocities, so the canvas is not empty at the start
+        for (int i = 0; i < 20; i++) { spawn(i % 2 == 0); }
+    }
+
+    /**
+     * Runs the simulation in a window, or headless for a fixed number of ticks
+     * @param config configuration of the simulation
+     * @param regions number of worker processes
+     * @param ticks ticks to run headless, 0 to open a window and run until it is closed
+     */
+    public static void run(SimulationConfig config, int regions, int ticks) {
+        DomainCoordinator coordinator;
+        try {
+            coordinator = new DomainCoordinator(config, regions);
+        } catch (IOException e) {
+            System.err.println("Error starting domain workers: " + e.getMessage());
+            return;
+        }
+        System.out.println("Running on " + regions + " worker processes");
+        try {
+            if (ticks > 0 || GraphicsEnvironment.isHeadless()) {
+                coordinator.runHeadless(ticks > 0 ? ticks : 1000);
+            } else {
+                coordinator.runWindow();
+            }
+        } catch (IOException e) {
+            System.err.println("Lost a domain worker: " + e.getMessage());
+            coordinator.destroyWorkers();
+        }
+    }
+
+    /**
+     * Runs a fixed number of ticks, printing the comets in each strip as it goes
+     * @param ticks number of ticks
+     * @throws IOException if a worker connection fails
+     */
+    private void runHeadless(int ticks) throws IOException {
+        long start = System.nanoTime();
+        for (int t = 1; t <= ticks; t++) {
+            tick(false);
+            if (t % REPORT_INTERVAL == 0 || t == ticks) { System.out.println("Tick " + t + ": " + describeRegions()); }
+        }
+        System.out.printf("%d ticks in %.1f ms (%.3f ms per tick)%n", ticks, (System.nanoTime() - start) / 1e6,
+                (System.nanoTime() - start) / 1e6 / ticks);
+        stop();
+    }
+
+    /**
+     * Opens a window drawing the gathered snapshots and runs until it is closed
+     * @throws IOException if a worker connection fails
+     */
+    private void runWindow() throws IOException {
+        JPanel panel = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                g.setColor(Color.BLACK);
+                float[] bodies = snapshot;
+                for (int i = 0; i + 2 < bodies.length; i += 3) {
+                    int size = (int) bodies[i + 2];
+                    g.fillOval(Math.round(bodies[i]) - size / 2, Math.round(bodies[i + 1]) - size / 2, size, size);
+                }
+                g.setColor(Color.RED);
+                for (int[] star : stars) {
+                    g.fillOval(star[0] - star[2] / 2, star[1] - star[2] / 2, star[2], star[2]);
+                }
+            }
+        };
+        JFrame jf = new JFrame();
+        jf.setTitle("Massive Motion (" + regions + " processes)");
+        jf.setSize(config.window_size_x, config.window_size_y);
+        jf.add(panel);
+        jf.setVisible(true);
+        jf.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        while (true) {
+            long start = System.nanoTime();
+            tick(true);
+            panel.repaint();
+            long left = config.timer_delay - (System.nanoTime() - start) / 1_000_000;
+            if (left > 0) {
+                try {
+                    Thread.sleep(left);
+                } catch (InterruptedException e) {
+                    stop();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one tick across all workers
+     * Every worker is sent its tick before any reply is read, so the strips are advanced in parallel
+     * @param gather true to collect the positions of every comet into the snapshot
+     * @throws IOException if a worker connection fails
+     */
+    void tick(boolean gather) throws IOException {
+        // Generate new comets based on probability
+        if (rand.nextDouble() < config.gen_x) { spawn(true); }
+        if (rand.nextDouble() < config.gen_y) { spawn(false); }
+
+        for (int r = 0; r < regions; r++) {
+            DataOutputStream o = out[r];
+            o.writeInt(DomainWorker.TICK);
+            o.writeBoolean(gather);
+            o.writeInt(stars.length);
+            for (int s = 0; s < stars.length; s++) {
+                int[] star = stars[s];
+                o.writeInt(star[0]);
+                o.writeInt(star[1]);
+                o.writeInt(star[2]);
+                o.writeDouble(star_mass[s]);
+                o.writeInt(star[3]);
+                o.writeInt(star[4]);
+            }
+            incoming[r].write(o);
+            o.flush();
+        }
+
+        DomainWorker.BodyBuffer[] next = newBuffers();
+        DomainWorker.BodyBuffer leaving = new DomainWorker.BodyBuffer();
+        float[][] gathered = new float[regions][];
+        for (int r = 0; r < regions; r++) {
+            DataInputStream i = in[r];
+            leaving.count = 0;
+            leaving.readAppend(i);
+            for (int b = 0; b < leaving.count; b++) {
+                int at = b * DomainWorker.BodyBuffer.STRIDE;
+                double[] d = leaving.data;
+                next[DomainWorker.owner(d[at], config.window_size_x, regions)]
+                        .add(d[at], d[at + 1], d[at + 2], d[at + 3], d[at + 4]);
+            }
+            counts[r] = i.readInt();
+            if (gather) {
+                gathered[r] = new float[i.readInt() * 3];
+                for (int f = 0; f < gathered[r].length; f++) { gathered[r][f] = i.readFloat(); }
+            }
+        }
+        incoming = next;
+        if (gather) { snapshot = concat(gathered); }
+
+        for (int[] star : stars) {
+            star[0] += star[3];
+            star[1] += star[4];
+        }
+    }
+
+    /**
+     * Spawns a comet on the canvas edge and queues it for the strip that owns it
+     * @param on_x_axis true to generate on x-axis (top/bottom), false for y-axis (left/right)
+     */
+    private void spawn(boolean on_x_axis) {
+        int[] comet = MassiveMotion.randomEdgeComet(on_x_axis, rand, config);
+        incoming[DomainWorker.owner(comet[0], config.window_size_x, regions)]
+                .add(comet[0], comet[1], comet[2], comet[3], config.body_size);
+    }
+
+    /**
+     * @return comet count of every strip from the last tick
+     */
+    private String describeRegions() {
+        StringBuilder sb = new StringBuilder();
+        long total = 0;
+        for (int r = 0; r < regions; r++) {
+            int count = counts[r];
+            total += count;
+            sb.append(r == 0 ? "" : ", ").append("strip ").append(r).append('=').append(count);
+        }
+        return total + " comets (" + sb + ")";
+    }
+
+    /**
+     * Tells every worker to stop and waits for the processes to exit
+     * @throws IOException if a worker connection fails
+     */
+    private void stop() throws IOException {
+        for (DataOutputStream o : out) {
+            o.writeInt(DomainWorker.STOP);
+            o.flush();
+        }
+        for (Process worker : workers) {
+            try {
+                worker.waitFor();
+            } catch (InterruptedException e) {
+                worker.destroy();
+            }
+        }
+    }
+
+    /**
+     * Kills any worker process still running
+     */
+    private void destroyWorkers() {
+        for (Process worker : workers) {
+            if (worker != null && worker.isAlive()) { worker.destroy(); }
+        }
+    }
+
+    /**
+     * @return one empty comet buffer per strip
+     */
+    private DomainWorker.BodyBuffer[] newBuffers() {
+        DomainWorker.BodyBuffer[] buffers = new DomainWorker.BodyBuffer[regions];
+        for (int r = 0; r < regions; r++) { buffers[r] = new DomainWorker.BodyBuffer(); }
+        return buffers;
+    }
+
+    /**
+     * @param parts arrays to join
+     * @return all parts in order in one array
+     */
+    private static float[] concat(float[][] parts) {
+        int length = 0;
+        for (float[] part : parts) { length += part.length; }
+        float[] all = new float[length];
+        int at = 0;
+        for (float[] part : parts) {
+            System.arraycopy(part, 0, all, at, part.length);
+            at += part.length;
+        }
+        return all;
+    }
+}
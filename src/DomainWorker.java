@@ -0,0 +1,175 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Worker process owning one vertical strip of the canvas in a domain-decomposed simulation
+ * The worker connects to the DomainCoordinator over a loopback socket and then, once per tick, receives the
+ * stars and the comets that moved into its strip, advances its own comets, and sends back the comets that
+ * left its strip along with the number of comets it holds.
+ * Comets do not pull on each other in this model, so the stars are the only state a strip needs from outside.
+ *
+ * Every message is written with DataOutputStream, comets as x, y, velocity x, velocity y and size.
+ */
+public class DomainWorker {
+    /** Message codes sent by the coordinator */
+    static final int STOP = 0, TICK = 1;
+
+    /**
+     * Growable packed array of comets, five doubles per comet
+     */
+    static class BodyBuffer {
+        static final int STRIDE = 5;
+        double[] data = new double[STRIDE * 64];
+        int count;
+
+        /**
+         * Adds a comet at the end of the buffer
+         * @param x x position
+         * @param y y position
+         * @param vel_x x velocity
+         * @param vel_y y velocity
+         * @param size size/radius of the comet
+         */
+        void add(double x, double y, double vel_x, double vel_y, double size) {
+            if ((count + 1) * STRIDE > data.length) { data = Arrays.copyOf(data, data.length * 2); }
+            int at = count * STRIDE;
+            data[at] = x;
+            data[at + 1] = y;
+            data[at + 2] = vel_x;
+            data[at + 3] = vel_y;
+            data[at + 4] = size;
+            count++;
+        }
+
+        /**
+         * Writes the comets as a count followed by the packed values
+         * @param out stream to write to
+         * @throws IOException if the stream fails
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(count);
+            for (int i = 0; i < count * STRIDE; i++) { out.writeDouble(data[i]); }
+        }
+
+        /**
+         * Reads comets written by write() and adds them to the buffer
+         * @param in stream to read from
+         * @throws IOException if the stream fails
+         */
+        void readAppend(DataInputStream in) throws IOException {
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                add(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+            }
+        }
+    }
+
+    /**
+     * Finds the strip owning an x position, positions off the canvas belong to the nearest strip
+     * @param x x position
+     * @param window_x width (x) of the window
+     * @param regions number of strips
+     * @return index of the owning strip
+     */
+    static int owner(double x, int window_x, int regions) {
+        int region = (int) Math.floor(x * regions / window_x);
+        return Math.max(0, Math.min(regions - 1, region));
+    }
+
+    /**
+     * Connects to the coordinator and runs ticks until told to stop
+     * @param args coordinator port and region index
+     */
+    public static void main(String[] args) {
+        int port = Integer.parseInt(args[0]);
+        int region = Integer.parseInt(args[1]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(region);
+            out.flush();
+
+            Properties prop = new Properties();
+            prop.load(new StringReader(in.readUTF()));
+            SimulationConfig config = new SimulationConfig(prop);
+            int regions = in.readInt();
+            run(config, region, regions, in, out);
+        } catch (IOException e) {
+            System.err.println("Domain worker " + region + " lost the coordinator: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tick loop of the worker
+     * @param config configuration of the simulation
+     * @param region index of the strip this worker owns
+     * @param regions number of strips
+     * @param in stream from the coordinator
+     * @param out stream to the coordinator
+     * @throws IOException if the connection fails
+     */
+    private static void run(SimulationConfig config, int region, int regions,
+                            DataInputStream in, DataOutputStream out) throws IOException {
+        BodyBuffer bodies = new BodyBuffer();
+        boolean gravity = config.gravity_constant != 0;
+        double[] state = new double[4];
+        double[] accel = new double[2];
+        while (in.readInt() == TICK) {
+            boolean snapshot = in.readBoolean();
+            // Stars are owned by the coordinator and sent to every worker each tick
+            MassiveMotion.CelestialObject[] stars = new MassiveMotion.CelestialObject[in.readInt()];
+            for (int i = 0; i < stars.length; i++) {
+                stars[i] = new MassiveMotion.CelestialObject(in.readInt(), in.readInt(), in.readInt(),
+                        in.readDouble(), in.readInt(), in.readInt(), true);
+            }
+            bodies.readAppend(in);
+
+            BodyBuffer kept = new BodyBuffer();
+            BodyBuffer leaving = new BodyBuffer();
+            for (int i = 0; i < bodies.count; i++) {
+                int at = i * BodyBuffer.STRIDE;
+                System.arraycopy(bodies.data, at, state, 0, 4);
+                double size = bodies.data[at + 4];
+                if (gravity) {
+                    MassiveMotion.advanceUnderGravity(state, accel, config, stars);
+                } else {
+                    state[0] += state[2];
+                    state[1] += state[3];
+                }
+                // Remove objects off-screen
+                if (MassiveMotion.CelestialObject.isOffScreen(state[0], state[1], size, config.window_size_x,
+                        config.window_size_y)) {
+                    continue;
+                }
+                if (owner(state[0], config.window_size_x, regions) == region) {
+                    kept.add(state[0], state[1], state[2], state[3], size);
+                } else {
+                    leaving.add(state[0], state[1], state[2], state[3], size);
+                }
+            }
+            bodies = kept;
+
+            leaving.write(out);
+            out.writeInt(kept.count);
+            if (snapshot) {
+                out.writeInt(kept.count);
+                for (int i = 0; i < kept.count; i++) {
+                    int at = i * BodyBuffer.STRIDE;
+                    out.writeFloat((float) kept.data[at]);
+                    out.writeFloat((float) kept.data[at + 1]);
+                    out.writeFloat((float) kept.data[at + 4]);
+                }
+            }
+            out.flush();
+        }
+    }
+}
@@ -1,3 +1,8 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
 /**
  * Implementation of the List interface using a doubly linked node structure containing nodes with next and prev pointers
  * A DoublyLinkedList can traverse backward and has more flexible algorithms allowing for implementation of more sophisticated operations
@@ -159,6 +164,73 @@ public class DoublyLinkedList<T> implements List<T> {
         return current.data;
     }
 
+    /**
+     * Passes every element to an action in list order
+     * Walks the nodes once instead of traversing from the head for every index
+     *
+     * @param action action to run on each element
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (Node<T> node = head; node != null; node = node.next) { action.accept(node.data); }
+    }
+
+    /**
+     * Passes every element and its position to an action in list order
+     * Walks the nodes once instead of traversing from the head for every index
+     *
+     * @param action action to run on each element and its position
+     */
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super T> action) {
+        int i = 0;
+        for (Node<T> node = head; node != null; node = node.next) { action.accept(node.data, i++); }
+    }
+
+    /**
+     * Copies the elements into an array in list order
+     *
+     * @param dest array to copy the elements into, reused if it can hold every element
+     * @return array holding the elements in its first size() entries
+     */
+    @Override
+    public T[] toArray(T[] dest) {
+        if (dest.length < size) { dest = Arrays.copyOf(dest, size); }
+        int i = 0;
+        for (Node<T> node = head; node != null; node = node.next) { dest[i++] = node.data; }
+        return dest;
+    }
+
+    /**
+     * Removes every element matching a filter in one pass, keeping the order of the others
+     * Unlinks matching nodes while walking the list once instead of traversing from the head for every index
+     *
+     * @param filter returns true for elements to remove
+     * @return number of elements removed
+     */
+    @Override
+    public int removeIf(Predicate<? super T> filter) {
+        int removed = 0;
+        Node<T> current = head;
+        while (current != null) {
+            Node<T> next = current.next;
+            if (filter.test(current.data)) {
+                if (current.prev != null) {
+                    current.prev.next = next;
+                } else {
+                    head = next;
+                }
+                if (next != null) {
+                    next.prev = current.prev;
+                }
+                removed++;
+            }
+            current = next;
+        }
+        size -= removed;
+        return removed;
+    }
+
     /**
      * Returns the number of elements in the list
      *
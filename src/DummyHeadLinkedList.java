@@ -1,3 +1,8 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
 /**
  * Implementation of the List interface using a singly linked node structure with a dummy head node
  * A dummy head node simplifies algorithms by eliminating the need to check for an empty list
@@ -119,6 +124,65 @@ public class DummyHeadLinkedList<T> implements List<T> {
         return remove.data;
     }
 
+    /**
+     * Passes every element to an action in list order
+     * Walks the nodes once instead of traversing from the head for every index
+     *
+     * @param action action to run on each element
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (Node<T> node = dummyHead.next; node != null; node = node.next) { action.accept(node.data); }
+    }
+
+    /**
+     * Passes every element and its position to an action in list order
+     * Walks the nodes once instead of traversing from the head for every index
+     *
+     * @param action action to run on each element and its position
+     */
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super T> action) {
+        int i = 0;
+        for (Node<T> node = dummyHead.next; node != null; node = node.next) { action.accept(node.data, i++); }
+    }
+
+    /**
+     * Copies the elements into an array in list order
+     *
+     * @param dest array to copy the elements into, reused if it can hold every element
+     * @return array holding the elements in its first size() entries
+     */
+    @Override
+    public T[] toArray(T[] dest) {
+        if (dest.length < size) { dest = Arrays.copyOf(dest, size); }
+        int i = 0;
+        for (Node<T> node = dummyHead.next; node != null; node = node.next) { dest[i++] = node.data; }
+        return dest;
+    }
+
+    /**
+     * Removes every element matching a filter in one pass, keeping the order of the others
+     * Unlinks matching nodes while walking the list once instead of traversing from the head for every index
+     *
+     * @param filter returns true for elements to remove
+     * @return number of elements removed
+     */
+    @Override
+    public int removeIf(Predicate<? super T> filter) {
+        int removed = 0;
+        for (Node<T> prev = dummyHead; prev.next != null; ) {
+            if (filter.test(prev.next.data)) {
+                prev.next = prev.next.next;
+                removed++;
+            } else {
+                prev = prev.next;
+            }
+        }
+        size -= removed;
+        return removed;
+    }
+
     /**
      * Returns the number of elements in the list
      *
@@ -0,0 +1,244 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent headless simulations in one JVM and prints a summary table
+ * The runs come either from a directory of configuration files or from a sweep file, and every configuration
+ * is parsed once on the calling thread before the runs start. Each run gets its own MassiveMotion instance
+ * and random number generator, so the runs share nothing but their immutable configurations.
+ *
+ * A sweep file is a property file such as:
+ *   base = MassiveMotion.txt
+ *   ticks = 2000
+ *   threads = 8
+ *   sweep.gen_x = 0.02, 0.06, 0.1
+ *   sweep.body_velocity = 1, 3, 5
+ * Every combination of the sweep.* values is run on top of the base configuration.
+ *
+ * Runs without a seed all use the same one, so the only difference between two runs is the keys that differ
+ * in their configurations. The sweep file can set it with a seed key, and sweep.seed repeats every
+ * combination with several seeds.
+ */
+public class EnsembleRunner {
+    /** Ticks per run when neither the command line nor the sweep file sets it */
+    static final int DEFAULT_TICKS = 1000;
+    /** File the summary table is also written to */
+    static final String SUMMARY_FILE = "ensemble_summary.csv";
+    /** Seed of every run whose configuration does not set one */
+    static final long DEFAULT_SEED = 1;
+
+    /**
+     * One configuration to run
+     */
+    static class Run {
+        String name;
+        SimulationConfig config;
+        /** Results, filled in when the run finishes */
+        long finalBodies, peakBodies;
+        double meanTick, wallTime;
+        String error;
+    }
+
+    /**
+     * Parses the runs and executes them
+     * @param args directory or sweep file, then optional ticks and thread count
+     */
+    public static void main(String[] args) {
+        File input = new File(args[0]);
+        Properties sweep = new Properties();
+        Run[] runs;
+        try {
+            if (input.isDirectory()) {
+                runs = runsFromDirectory(input);
+            } else {
+                try (InputStream is = new FileInputStream(input)) { sweep.load(is); }
+                runs = runsFromSweep(sweep, input.getAbsoluteFile().getParentFile());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error reading ensemble input: " + e.getMessage());
+            return;
+        }
+        int ticks = args.length > 1 ? Integer.parseInt(args[1])
+                : Integer.parseInt(sweep.getProperty("ticks", String.valueOf(DEFAULT_TICKS)).trim());
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Integer.parseInt(sweep.getProperty("threads",
+                        String.valueOf(Runtime.getRuntime().availableProcessors())).trim());
+
+        System.out.println("Running " + runs.length + " simulations for " + ticks + " ticks on " + threads + " threads");
+        long start = System.nanoTime();
+        execute(runs, ticks, threads);
+        System.out.printf("Ensemble finished in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        printSummary(runs, ticks);
+    }
+
+    /**
+     * Builds one run for every configuration file in a directory
+     * @param dir directory holding .txt or .properties configuration files
+     * @return runs sorted by file name
+     * @throws IOException if a file cannot be read
+     */
+    static Run[] runsFromDirectory(File dir) throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt") || name.endsWith(".properties"));
+        if (files == null || files.length == 0) { throw new IOException("No config files in " + dir); }
+        Arrays.sort(files);
+        Run[] runs = new Run[files.length];
+        for (int i = 0; i < files.length; i++) {
+            runs[i] = new Run();
+            runs[i].name = files[i].getName();
+            runs[i].config = prepare(SimulationConfig.load(files[i].getPath()));
+        }
+        return runs;
+    }
+
+    /**
+     * Builds one run for every combination of the sweep.* values in a sweep file
+     * @param sweep properties of the sweep file
+     * @param dir directory of the sweep file, the base configuration is resolved against it
+     * @return runs in the order the combinations are generated
+     * @throws IOException if the base configuration cannot be read
+     */
+    static Run[] runsFromSweep(Properties sweep, File dir) throws IOException {
+        File base = new File(sweep.getProperty("base", "MassiveMotion.txt").trim());
+        if (!base.isAbsolute()) { base = new File(dir, base.getPath()); }
+        SimulationConfig baseConfig = SimulationConfig.load(base.getPath());
+        String seed = sweep.getProperty("seed");
+        if (seed != null) { baseConfig = baseConfig.with("seed", seed.trim()); }
+
+        // Expand the sweep one key at a time, each key multiplies the runs by its number of values
+        Deque<SimulationConfig> configs = new ArrayDeque<>();
+        Deque<String> names = new ArrayDeque<>();
+        configs.add(baseConfig);
+        names.add("");
+        String[] keys = sweep.stringPropertyNames().stream().filter(k -> k.startsWith("sweep.")).sorted()
+                .toArray(String[]::new);
+        for (String sweepKey : keys) {
+            String key = sweepKey.substring("sweep.".length());
+            String[] values = sweep.getProperty(sweepKey).split(",");
+            int count = configs.size();
+            for (int i = 0; i < count; i++) {
+                SimulationConfig config = configs.poll();
+                String name = names.poll();
+                for (String value : values) {
+                    configs.add(config.with(key, value.trim()));
+                    names.add((name.isEmpty() ? "" : name + " ") + key + "=" + value.trim());
+                }
+            }
+        }
+        Run[] runs = new Run[configs.size()];
+        for (int i = 0; i < runs.length; i++) {
+            String name = names.poll();
+            runs[i] = new Run();
+            runs[i].name = name.isEmpty() ? "base" : name;
+            runs[i].config = prepare(configs.poll());
+        }
+        return runs;
+    }
+
+    /**
+     * Adjusts a configuration for a headless run
+     * Runs without a seed get DEFAULT_SEED so the ensemble can be repeated and runs differ only in their
+     * configurations. Spawning happens in the update loop because spawner threads run on wall-clock time instead
+     * of ticks, and since runs never paint, the renderer is forced to graphics to avoid building a tile
+     * rasterizer and its thread pool for every run
+     * @param config configuration from a file or sweep
+     * @return configuration to run
+     */
+    private static SimulationConfig prepare(SimulationConfig config) {
+        SimulationConfig prepared = config.with("spawner_threads", "0").with("hot_reload", "false")
+                .with("renderer", "graphics");
+        return config.seed == null ? prepared.with("seed", String.valueOf(DEFAULT_SEED)) : prepared;
+    }
+
+    /**
+     * Runs every simulation on a bounded thread pool and waits for all of them
+     * @param runs runs to execute, results are stored in them
+     * @param ticks ticks per run
+     * @param threads number of simulations running at the same time
+     */
+    static void execute(Run[] runs, int ticks, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[runs.length];
+            for (int i = 0; i < runs.length; i++) {
+                Run run = runs[i];
+                futures[i] = pool.submit(() -> simulate(run, ticks));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    System.err.println("Ensemble run failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs one headless simulation
+     * @param run run to execute, results are stored in it
+     * @param ticks number of ticks to run
+     */
+    static void simulate(Run run, int ticks) {
+        long start = System.nanoTime();
+        MassiveMotion mm = null;
+        try {
+            mm = new MassiveMotion(run.config, false);
+            long tickTime = 0;
+            for (int t = 0; t < ticks; t++) {
+                long tickStart = System.nanoTime();
+                mm.tick();
+                tickTime += System.nanoTime() - tickStart;
+                run.peakBodies = Math.max(run.peakBodies, mm.bodyCount());
+            }
+            run.finalBodies = mm.bodyCount();
+            run.meanTick = tickTime / 1e6 / Math.max(ticks, 1);
+        } catch (RuntimeException e) {
+            run.error = e.getMessage();
+        } finally {
+            if (mm != null && mm.bodyStore != null) { mm.bodyStore.close(); }
+        }
+        run.wallTime = (System.nanoTime() - start) / 1e6;
+    }
+
+    /**
+     * Prints the summary table and writes it as CSV
+     * @param runs finished runs
+     * @param ticks ticks per run
+     */
+    private static void printSummary(Run[] runs, int ticks) {
+        int nameWidth = 4;
+        for (Run run : runs) { nameWidth = Math.max(nameWidth, run.name.length()); }
+        String format = "%-" + nameWidth + "s %12s %12s %12s %12s%n";
+        System.out.printf("%n" + format, "run", "final bodies", "peak bodies", "mean tick ms", "wall ms");
+        for (Run run : runs) {
+            if (run.error != null) {
+                System.out.printf("%-" + nameWidth + "s failed: %s%n", run.name, run.error);
+            } else {
+                System.out.printf(format, run.name, run.finalBodies, run.peakBodies,
+                        String.format("%.3f", run.meanTick), String.format("%.1f", run.wallTime));
+            }
+        }
+        try (PrintWriter out = new PrintWriter(SUMMARY_FILE)) {
+            out.println("run,ticks,final_bodies,peak_bodies,mean_tick_ms,wall_ms,error");
+            for (Run run : runs) {
+                out.printf("\"%s\",%d,%d,%d,%.3f,%.1f,%s%n", run.name, ticks, run.finalBodies, run.peakBodies,
+                        run.meanTick, run.wallTime, run.error == null ? "" : "\"" + run.error + "\"");
+            }
+            System.out.println("\nSummary written to " + SUMMARY_FILE);
+        } catch (IOException e) {
+            System.err.println("Error writing summary: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Timing wheel that predicts when each comet leaves the canvas
+ * A comet's exit tick is computed from its straight-line path and the comet is put in the slot for that tick.
+ * Each tick only the comets in the current slot are checked, so culling costs O(expired) instead of O(n).
+ * Every comet has at most one entry: a comet whose path changes to leave sooner is moved out of its old slot,
+ * using the position recorded on the comet.
+ */
+public class ExpiryWheel {
+    /** Number of slots, a power of two so the slot of a tick is a mask */
+    static final int SLOTS = 1024;
+
+    private final MassiveMotion.CelestialObject[][] slots;
+    private final int[] counts;
+    private final int window_x, window_y;
+
+    /**
+     * Constructs an empty wheel for a canvas
+     * @param window_x width (x) of the window
+     * @param window_y height (y) of the window
+     */
+    public ExpiryWheel(int window_x, int window_y) {
+        slots = new MassiveMotion.CelestialObject[SLOTS][];
+        counts = new int[SLOTS];
+        for (int i = 0; i < SLOTS; i++) { slots[i] = new MassiveMotion.CelestialObject[4]; }
+        this.window_x = window_x;
+        this.window_y = window_y;
+    }
+
+    /**
+     * Schedules a comet from its current position and velocity
+     * Comets that never leave on their current path are checked again after one turn of the wheel
+     * @param obj comet to schedule
+     * @param now number of ticks completed so far
+     */
+    public void schedule(MassiveMotion.CelestialObject obj, long now) {
+        long ticks = Math.min(obj.ticksUntilOffScreen(window_x, window_y), SLOTS);
+        insert(obj, now + Math.max(ticks, 1));
+    }
+
+    /**
+     * Reschedules a comet whose velocity changed, if the change brings its exit tick forward
+     * A later exit needs no move, since the comet is checked at its current entry and scheduled again if it
+     * is still on the canvas. This keeps comets circling beyond the wheel's horizon from moving every tick.
+     * A comet that is already off-screen is due at the given tick
+     * @param obj comet to reschedule
+     * @param now number of ticks completed once the current update finishes
+     */
+    public void reschedule(MassiveMotion.CelestialObject obj, long now) {
+        long ticks = Math.min(obj.ticksUntilOffScreen(window_x, window_y), SLOTS);
+        long due = now + Math.max(ticks, 0);
+        long scheduled = obj.get_expiry_tick();
+        if (scheduled < 0 || due < scheduled) { insert(obj, due); }
+    }
+
+    /**
+     * Checks the comets due at a tick and marks the ones that are off-screen as expired
+     * Comets that are still on the canvas, because a force bent their path, are scheduled again
+     * @param now number of ticks completed so far
+     * @return number of comets marked as expired
+     */
+    public int expire(long now) {
+        int slot = (int) (now & (SLOTS - 1));
+        MassiveMotion.CelestialObject[] due = slots[slot];
+        int count = counts[slot];
+        if (count == 0) { return 0; }
+        // Entries for later turns of the wheel stay in the slot, everything else leaves it
+        slots[slot] = new MassiveMotion.CelestialObject[Math.max(count, 4)];
+        counts[slot] = 0;
+        int expired = 0;
+        for (int i = 0; i < count; i++) {
+            MassiveMotion.CelestialObject obj = due[i];
+            obj.set_expiry_index(-1);
+            if (obj.get_expiry_tick() > now) {
+                append(obj, slot);
+            } else if (obj.isOffScreen(window_x, window_y)) {
+                obj.markExpired();
+                expired++;
+            } else {
+                long ticks = Math.min(obj.ticksUntilOffScreen(window_x, window_y), SLOTS);
+                insert(obj, now + Math.max(ticks, 1));
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Adds a comet to the slot of a tick, moving it out of its old slot first, and records the tick on the comet
+     * @param obj comet to add
+     * @param tick tick when the comet is expected to be off-screen
+     */
+    private void insert(MassiveMotion.CelestialObject obj, long tick) {
+        if (obj.get_expiry_index() >= 0) { unlink(obj); }
+        obj.set_expiry_tick(tick);
+        append(obj, (int) (tick & (SLOTS - 1)));
+    }
+
+    /**
+     * Adds a comet at the end of a slot and records its position on the comet
+     * @param obj comet to add
+     * @param slot slot to add it to
+     */
+    private void append(MassiveMotion.CelestialObject obj, int slot) {
+        if (counts[slot] == slots[slot].length) {
+            MassiveMotion.CelestialObject[] grown = new MassiveMotion.CelestialObject[slots[slot].length * 2];
+            System.arraycopy(slots[slot], 0, grown, 0, counts[slot]);
+            slots[slot] = grown;
+        }
+        obj.set_expiry_index(counts[slot]);
+        slots[slot][counts[slot]++] = obj;
+    }
+
+    /**
+     * Removes a comet from its slot by moving the slot's last entry into its place
+     * @param obj comet to remove, must be in the wheel
+     */
+    private void unlink(MassiveMotion.CelestialObject obj) {
+        int slot = (int) (obj.get_expiry_tick() & (SLOTS - 1));
+        MassiveMotion.CelestialObject[] entries = slots[slot];
+        int last = --counts[slot];
+        int index = obj.get_expiry_index();
+        entries[index] = entries[last];
+        entries[index].set_expiry_index(index);
+        entries[last] = null;
+        obj.set_expiry_index(-1);
+    }
+}
@@ -1,4 +1,6 @@
-import org.w3c.dom.Node;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 
 public interface List<T> {
 
@@ -7,4 +9,38 @@ public interface List<T> {
     public T get (int index) throws Exception;
     public T remove (int index) throws Exception;
     public int size ();
-}
\ No newline at end of file
+
+    /**
+     * Passes every element to an action in list order, without index checks or checked exceptions
+     * The action must not add or remove elements of this list
+     *
+     * @param action action to run on each element
+     */
+    public void forEach (Consumer<? super T> action);
+
+    /**
+     * Passes every element and its position to an action in list order, without index checks or checked exceptions
+     * The action must not add or remove elements of this list
+     *
+     * @param action action to run on each element and its position
+     */
+    public void forEachIndexed (ObjIntConsumer<? super T> action);
+
+    /**
+     * Copies the elements into an array in list order
+     * The given array is filled and returned if it can hold size() elements, otherwise a new array of the same
+     * type is returned. Entries past size() are left as they were, so callers can reuse one array every frame.
+     *
+     * @param dest array to copy the elements into
+     * @return array holding the elements in its first size() entries
+     */
+    public T[] toArray (T[] dest);
+
+    /**
+     * Removes every element matching a filter in one pass, keeping the order of the others
+     *
+     * @param filter returns true for elements to remove
+     * @return number of elements removed
+     */
+    public int removeIf (Predicate<? super T> filter);
+}
@@ -0,0 +1,173 @@
+import java.util.Random;
+
+/**
+ * Differential check that every List backend behaves like java.util.ArrayList
+ * Each backend is driven with the same random sequences of add, add at index, get, remove, removeIf and the
+ * bulk reads forEach, forEachIndexed and toArray, including out-of-bounds indices, and every result, thrown
+ * exception type and size is compared with the reference list.
+ * A sequence is generated from its seed alone, so a failure can be replayed from the seed it prints.
+ *
+ * ConcurrentBodyList only shows appended elements after a merge, so it is merged after every append the same
+ * way the simulation merges at the start of each tick.
+ */
+public class ListConformance {
+    /** Sequences run per backend when the command line does not set it */
+    static final int DEFAULT_SEQUENCES = 500;
+    /** Operations per sequence */
+    static final int OPERATIONS = 400;
+
+    /**
+     * Runs every backend and prints one line per backend
+     * @param seed seed of the first sequence, sequence i uses seed + i
+     * @param sequences number of sequences per backend
+     * @return true if every backend matched the reference list
+     */
+    public static boolean run(long seed, int sequences) {
+        System.out.println("Checking " + sequences + " sequences of " + OPERATIONS + " operations from seed " + seed);
+        boolean passed = true;
+        for (String backend : StressMode.BACKENDS) {
+            String failure = null;
+            for (int s = 0; s < sequences && failure == null; s++) {
+                failure = check(backend, seed + s);
+            }
+            System.out.printf("%-10s %s%n", backend, failure == null ? "ok" : "FAILED " + failure);
+            passed &= failure == null;
+        }
+        return passed;
+    }
+
+    /**
+     * Runs one sequence against one backend
+     * @param backend list type as in the property file
+     * @param seed seed of the sequence
+     * @return description of the first difference, null if there was none
+     */
+    static String check(String backend, long seed) {
+        Random rand = new Random(seed);
+        List<Integer> list = MassiveMotion.createList(backend);
+        java.util.List<Integer> reference = new java.util.ArrayList<>();
+        for (int op = 0; op < OPERATIONS; op++) {
+            // Indices reach one past each end so the bounds checks are exercised as well
+            int index = rand.nextInt(reference.size() + 3) - 1;
+            int value = rand.nextInt(1000);
+            String call, expected, actual;
+            switch (rand.nextInt(6)) {
+                case 0 -> {
+                    call = "add(" + value + ")";
+                    expected = String.valueOf(reference.add(value));
+                    actual = String.valueOf(list.add(value));
+                    if (list instanceof ConcurrentBodyList) { ((ConcurrentBodyList<Integer>) list).mergePending(); }
+                }
+                case 1 -> {
+                    call = "add(" + index + ", " + value + ")";
+                    expected = outcome(() -> { reference.add(index, value); return null; });
+                    actual = outcome(() -> { list.add(index, value); return null; });
+                }
+                case 2 -> {
+                    call = "get(" + index + ")";
+                    expected = outcome(() -> reference.get(index));
+                    actual = outcome(() -> list.get(index));
+                }
+                case 3 -> {
+                    call = "remove(" + index + ")";
+                    expected = outcome(() -> reference.remove(index));
+                    actual = outcome(() -> list.remove(index));
+                }
+                case 4 -> {
+                    // Removes about one element in 2 to 9, so the list keeps growing over the sequence
+                    int divisor = 2 + rand.nextInt(8);
+                    call = "removeIf(multiple of " + divisor + ")";
+                    int before = reference.size();
+                    reference.removeIf(v -> v % divisor == 0);
+                    expected = String.valueOf(before - reference.size());
+                    actual = String.valueOf(list.removeIf(v -> v % divisor == 0));
+                }
+                default -> {
+                    call = "bulk reads";
+                    expected = reference.toString();
+                    actual = bulkReads(list, rand.nextInt(reference.size() + 2));
+                }
+            }
+            if (!expected.equals(actual)) {
+                return describe(seed, op, call, expected, actual);
+            }
+            if (list.size() != reference.size()) {
+                return describe(seed, op, call + " then size()", String.valueOf(reference.size()),
+                        String.valueOf(list.size()));
+            }
+        }
+        // Walk the whole list once at the end, in case an operation corrupted elements it did not return
+        for (int i = 0; i < reference.size(); i++) {
+            int at = i;
+            String expected = outcome(() -> reference.get(at));
+            String actual = outcome(() -> list.get(at));
+            if (!expected.equals(actual)) { return describe(seed, OPERATIONS, "get(" + i + ")", expected, actual); }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a list with forEach, forEachIndexed and toArray
+     * @param list list to read
+     * @param capacity length of the array given to toArray, below or above the list size so both the grow and
+     *                 the reuse paths are checked
+     * @return the elements in the same format as java.util.List.toString(), or a description of the
+     *         first bulk read that disagreed with forEach
+     */
+    private static String bulkReads(List<Integer> list, int capacity) {
+        java.util.List<Integer> elements = new java.util.ArrayList<>();
+        list.forEach(elements::add);
+        StringBuilder problems = new StringBuilder();
+        int[] visited = { 0 };
+        list.forEachIndexed((value, i) -> {
+            if (i != visited[0]++ || i >= elements.size() || !elements.get(i).equals(value)) {
+                problems.append(" forEachIndexed gave ").append(value).append(" at ").append(i);
+            }
+        });
+        if (visited[0] != elements.size()) { problems.append(" forEachIndexed visited ").append(visited[0]); }
+        Integer[] array = list.toArray(new Integer[capacity]);
+        if (array.length < elements.size()) { problems.append(" toArray returned ").append(array.length).append(" slots"); }
+        for (int i = 0; i < Math.min(array.length, elements.size()); i++) {
+            if (!elements.get(i).equals(array[i])) {
+                problems.append(" toArray gave ").append(array[i]).append(" at ").append(i);
+            }
+        }
+        return problems.length() == 0 ? elements.toString() : elements + problems.toString();
+    }
+
+    /**
+     * An operation on a list that may throw
+     */
+    private interface Operation {
+        /**
+         * @return result of the operation
+         * @throws Exception if the operation fails
+         */
+        Object apply() throws Exception;
+    }
+
+    /**
+     * Runs an operation and describes what happened
+     * @param operation operation to run
+     * @return the result, or the simple name of the exception it threw
+     */
+    private static String outcome(Operation operation) {
+        try {
+            return String.valueOf(operation.apply());
+        } catch (Exception e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * @param seed seed of the sequence
+     * @param op index of the failing operation
+     * @param call failing call
+     * @param expected outcome of the reference list
+     * @param actual outcome of the backend
+     * @return one line describing the difference
+     */
+    private static String describe(long seed, int op, String call, String expected, String actual) {
+        return "seed " + seed + ", operation " + op + ": " + call + " gave " + actual + ", expected " + expected;
+    }
+}
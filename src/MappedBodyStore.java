@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Comet storage kept in a memory-mapped file instead of on the heap
+ * Each comet is a packed record of position, velocity and size, and the file is mapped in fixed-size tiles.
+ * Every tick the tiles are streamed in order and surviving comets are written back compacted, so the
+ * operating system only needs to keep a few tiles in memory at a time and the body count is bounded by disk space.
+ */
+public class MappedBodyStore {
+    /** Bytes per record: x, y, velocity x, velocity y as doubles, then size and a reserved int */
+    static final int RECORD_BYTES = 40;
+    /** Records per mapped tile */
+    static final int TILE_RECORDS = 1 << 16;
+    /** Records sorted per call to sortNextWindow(), a divisor of TILE_RECORDS so a window never spans two tiles */
+    static final int SORT_WINDOW = 1 << 12;
+    private static final int X = 0, Y = 8, VEL_X = 16, VEL_Y = 24, SIZE = 32;
+
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer[] tiles;
+    private long count;
+    /** Window sorted by the next call to sortNextWindow() */
+    private long nextSortWindow;
+    /** Scratch of sortNextWindow(), allocated on the first call and reused */
+    private int[] sortKeys, sortOrder, sortSwap;
+    private byte[] sortRecords, sortedRecords;
+
+    /**
+     * Creates an empty store backed by a new temporary file
+     * @param dir directory for the backing file, null for the system temporary directory
+     */
+    public MappedBodyStore(String dir) {
+        try {
+            file = dir == null ? Files.createTempFile("massive-motion", ".bodies")
+                    : Files.createTempFile(Paths.get(dir), "massive-motion", ".bodies");
+            file.toFile().deleteOnExit();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create body store file", e);
+        }
+        tiles = new MappedByteBuffer[16];
+        count = 0;
+    }
+
+    /**
+     * @return number of comets in the store
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Adds a comet at the end of the store, mapping a new tile when the last one is full
+     * @param pos_x x position
+     * @param pos_y y position
+     * @param vel_x x velocity
+     * @param vel_y y velocity
+     * @param size size/radius of the comet
+     */
+    public void add(double pos_x, double pos_y, double vel_x, double vel_y, int size) {
+        MappedByteBuffer tile = tile(count);
+        int at = offset(count);
+        tile.putDouble(at + X, pos_x);
+        tile.putDouble(at + Y, pos_y);
+        tile.putDouble(at + VEL_X, vel_x);
+        tile.putDouble(at + VEL_Y, vel_y);
+        tile.putInt(at + SIZE, size);
+        count++;
+    }
+
+    /**
+     * Moves every comet by one tick and drops the ones that left the canvas
+     * Records are read and written in file order, one tile at a time
+     * @param mm simulation providing the configuration and gravity
+     */
+    public void advance(MassiveMotion mm) {
+        SimulationConfig config = mm.config;
+        boolean gravity = config.gravity_constant != 0;
+        double[] state = new double[4];
+        double[] accel = new double[2];
+        long kept = 0;
+        for (long i = 0; i < count; i++) {
+            MappedByteBuffer in = tiles[(int) (i / TILE_RECORDS)];
+            int at = offset(i);
+            state[0] = in.getDouble(at + X);
+            state[1] = in.getDouble(at + Y);
+            state[2] = in.getDouble(at + VEL_X);
+            state[3] = in.getDouble(at + VEL_Y);
+            int size = in.getInt(at + SIZE);
+            if (gravity) {
+                MassiveMotion.advanceUnderGravity(state, accel, config, mm.stars);
+            } else {
+                state[0] += state[2];
+                state[1] += state[3];
+            }
+            // Remove objects off-screen by not writing them back
+            if (MassiveMotion.CelestialObject.isOffScreen(state[0], state[1], size, config.window_size_x,
+                    config.window_size_y)) {
+                continue;
+            }
+            MappedByteBuffer out = tiles[(int) (kept / TILE_RECORDS)];
+            int to = offset(kept);
+            out.putDouble(to + X, state[0]);
+            out.putDouble(to + Y, state[1]);
+            out.putDouble(to + VEL_X, state[2]);
+            out.putDouble(to + VEL_Y, state[3]);
+            out.putInt(to + SIZE, size);
+            kept++;
+        }
+        count = kept;
+    }
+
+    /**
+     * Sorts the records of one window by Morton key, moving to the next window on each call
+     * A window is SORT_WINDOW records, so the work per call is bounded however large the store is, and the
+     * scratch arrays are reused so sorting allocates nothing after the first call
+     */
+    public void sortNextWindow() {
+        if (count == 0) { return; }
+        long windows = (count + SORT_WINDOW - 1) / SORT_WINDOW;
+        long first = (nextSortWindow % windows) * SORT_WINDOW;
+        nextSortWindow = nextSortWindow % windows + 1;
+        if (sortKeys == null) {
+            sortKeys = new int[SORT_WINDOW];
+            sortOrder = new int[SORT_WINDOW];
+            sortSwap = new int[SORT_WINDOW];
+            sortRecords = new byte[SORT_WINDOW * RECORD_BYTES];
+            sortedRecords = new byte[SORT_WINDOW * RECORD_BYTES];
+        }
+        MappedByteBuffer tile = tiles[(int) (first / TILE_RECORDS)];
+        int start = offset(first);
+        int n = (int) Math.min(SORT_WINDOW, count - first);
+        for (int i = 0; i < n; i++) {
+            int at = start + i * RECORD_BYTES;
+            sortKeys[i] = MortonOrder.key(tile.getDouble(at + X), tile.getDouble(at + Y));
+        }
+        int[] order = MortonOrder.sortedOrder(sortKeys, n, sortOrder, sortSwap);
+        // Records are permuted on the heap and written back in one bulk put
+        tile.get(start, sortRecords, 0, n * RECORD_BYTES);
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(sortRecords, order[i] * RECORD_BYTES, sortedRecords, i * RECORD_BYTES, RECORD_BYTES);
+        }
+        tile.put(start, sortedRecords, 0, n * RECORD_BYTES);
+    }
+
+    /**
+     * Visitor for reading comets without creating objects
+     */
+    public interface BodyVisitor {
+        /**
+         * @param pos_x x position
+         * @param pos_y y position
+         * @param size size/radius of the comet
+         */
+        void visit(double pos_x, double pos_y, int size);
+    }
+
+    /**
+     * Streams every comet to a visitor in file order
+     * @param visitor receives the position and size of each comet
+     */
+    public void forEach(BodyVisitor visitor) {
+        for (long i = 0; i < count; i++) {
+            MappedByteBuffer tile = tiles[(int) (i / TILE_RECORDS)];
+            int at = offset(i);
+            visitor.visit(tile.getDouble(at + X), tile.getDouble(at + Y), tile.getInt(at + SIZE));
+        }
+    }
+
+    /**
+     * Closes the backing file and deletes it
+     */
+    public void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Error closing body store: " + e.getMessage());
+        }
+        tiles = new MappedByteBuffer[0];
+        count = 0;
+    }
+
+    /**
+     * Returns the tile holding a record, mapping it if it is not mapped yet
+     * @param index record index
+     * @return mapped tile
+     */
+    private MappedByteBuffer tile(long index) {
+        int t = (int) (index / TILE_RECORDS);
+        if (t >= tiles.length) {
+            MappedByteBuffer[] grown = new MappedByteBuffer[tiles.length * 2];
+            System.arraycopy(tiles, 0, grown, 0, tiles.length);
+            tiles = grown;
+        }
+        if (tiles[t] == null) {
+            try {
+                long bytes = (long) TILE_RECORDS * RECORD_BYTES;
+                tiles[t] = channel.map(FileChannel.MapMode.READ_WRITE, t * bytes, bytes);
+                tiles[t].order(ByteOrder.nativeOrder());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map body store tile " + t, e);
+            }
+        }
+        return tiles[t];
+    }
+
+    /**
+     * @param index record index
+     * @return byte offset of the record inside its tile
+     */
+    private static int offset(long index) {
+        return (int) (index % TILE_RECORDS) * RECORD_BYTES;
+    }
+}
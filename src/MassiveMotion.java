@@ -2,11 +2,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * MassiveMotion creates celestial objects moving on a canvas such as a central star and random comets.
@@ -17,12 +16,14 @@ public class MassiveMotion extends JPanel implements ActionListener {
      * CelestialObject class for storing the celestial objects attributes such as size, mass, velocity, and position
      */
     public static class CelestialObject {
-        private int position_x, position_y;
+        private double position_x, position_y;
         private final int size;
         private final double mass;
-        private final int velocity_x;
-        private final int velocity_y;
+        private double velocity_x, velocity_y;
         private final boolean isStar;
+        private long expiry_tick = -1;
+        private int expiry_index = -1;
+        private boolean expired;
 
         /**
          * Constructor for CelestialObject to initialize new objects of the class
@@ -45,14 +46,14 @@ public class MassiveMotion extends JPanel implements ActionListener {
         }
 
         /**
-         * @return x position of the celestial object
+         * @return x position of the celestial object rounded to the nearest pixel
          */
-        public int get_position_x() { return position_x; }
+        public int get_position_x() { return (int) Math.round(position_x); }
 
         /**
-         * @return y position of the celestial object
+         * @return y position of the celestial object rounded to the nearest pixel
          */
-        public int get_position_y() { return position_y; }
+        public int get_position_y() { return (int) Math.round(position_y); }
 
         /**
          * @return size/radius of the celestial object
@@ -65,14 +66,14 @@ public class MassiveMotion extends JPanel implements ActionListener {
         public double get_mass() { return mass; }
 
         /**
-         * @return x velocity of the celestial object
+         * @return x velocity of the celestial object in pixels per tick
          */
-        public int get_velocity_x() { return velocity_x; }
+        public double get_velocity_x() { return velocity_x; }
 
         /**
-         * @return y velocity of the celestial object
+         * @return y velocity of the celestial object in pixels per tick
          */
-        public int get_velocity_y() { return velocity_y; }
+        public double get_velocity_y() { return velocity_y; }
 
         /**
          * @return true if celestial object is a star, false otherwise
@@ -87,6 +88,62 @@ public class MassiveMotion extends JPanel implements ActionListener {
             position_y += velocity_y;
         }
 
+        /**
+         * @return tick when the object is expected to be off-screen, -1 if it has not been scheduled
+         */
+        public long get_expiry_tick() { return expiry_tick; }
+
+        /**
+         * @param tick tick when the object is expected to be off-screen
+         */
+        public void set_expiry_tick(long tick) { expiry_tick = tick; }
+
+        /**
+         * @return position of the object in its expiry wheel slot, -1 if it is not in the wheel
+         */
+        public int get_expiry_index() { return expiry_index; }
+
+        /**
+         * @param index position of the object in its expiry wheel slot, -1 when it leaves the wheel
+         */
+        public void set_expiry_index(int index) { expiry_index = index; }
+
+        /**
+         * @return true if the object left the canvas and is waiting to be removed
+         */
+        public boolean isExpired() { return expired; }
+
+        /**
+         * Marks the object as off-screen so the next update removes it
+         */
+        public void markExpired() { expired = true; }
+
+        /**
+         * Predicts how many more position updates at the current velocity take the object off-screen
+         * @param window_x width (x) of the window
+         * @param window_y height (y) of the window
+         * @return number of updates, Long.MAX_VALUE if the object never leaves on its current path
+         */
+        public long ticksUntilOffScreen(int window_x, int window_y) {
+            double ticks = Math.min(ticksToLeave(position_x, velocity_x, window_x),
+                    ticksToLeave(position_y, velocity_y, window_y));
+            return ticks >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) ticks;
+        }
+
+        /**
+         * Predicts how many updates take a coordinate past the canvas bounds on one axis
+         * Uses the same strict comparisons as isOffScreen
+         * @param position position on the axis
+         * @param velocity velocity along the axis
+         * @param window size of the window on the axis
+         * @return number of updates, infinity if the object does not move on this axis
+         */
+        private double ticksToLeave(double position, double velocity, int window) {
+            if (velocity > 0) { return Math.floor((window + size - position) / velocity) + 1; }
+            if (velocity < 0) { return Math.floor((position + size) / -velocity) + 1; }
+            return Double.POSITIVE_INFINITY;
+        }
+
         /**
          * Checks if the object is outside the canvas bounds
          * @param window_x width (x) of the window
@@ -94,34 +151,54 @@ public class MassiveMotion extends JPanel implements ActionListener {
          * @return true if object is off-screen
          */
         public boolean isOffScreen(int window_x, int window_y) {
-            if (position_x < - size || position_x > window_x + size ||
-                    position_y < - size || position_y > window_y + size) {
-                return true; // object off-screen
-            }
-            return false;
+            return isOffScreen(position_x, position_y, size, window_x, window_y);
+        }
+
+        /**
+         * Checks if a body at a position is outside the canvas bounds
+         * Also used by the memory-mapped body store and the domain workers, which keep comets as primitives
+         * @param x x position
+         * @param y y position
+         * @param size size/radius of the body
+         * @param window_x width (x) of the window
+         * @param window_y height (y) of the window
+         * @return true if the body is off-screen
+         */
+        public static boolean isOffScreen(double x, double y, double size, int window_x, int window_y) {
+            return x < - size || x > window_x + size || y < - size || y > window_y + size;
         }
     }
 
     /** Timer for animation updates */
     protected Timer tm;
-    /** Delay between timer updates in ms */
-    protected int timer_delay;
-    /** Type of list implementation used */
-    protected String list;
-    /** Width and height of the canvas window in pixels */
-    protected int window_size_x, window_size_y;
-    /** Probability of generating comets on x-axis, y-axis, and mass of comets in kg*/
-    protected double gen_x, gen_y, body_mass;
-    /** Size/radius of generated comet objects in pixels and max velocity range for generated comets*/
-    protected int body_size, body_velocity;
-    /** Initial x and y position of the central star, size/radius of the star, and velocity of the star along the x and y axis*/
-    protected int star_position_x, star_position_y, star_size, star_velocity_x, star_velocity_y;
-    /** Mass of star in kg */
-    protected double star_mass;
-    /** List holding all celestial objects */
+    /** Configuration in use, only replaced between ticks, volatile so spawner threads see the swap */
+    protected volatile SimulationConfig config;
+    /** Configuration published by the file watcher, applied at the start of the next tick */
+    protected final AtomicReference<SimulationConfig> pendingConfig = new AtomicReference<>();
+    /** Stars kept outside of the list scan so gravity lookups do not walk the list */
+    protected CelestialObject[] stars;
+    /** List holding all celestial objects, or only the stars when comets are kept in the body store */
     protected List<CelestialObject> celestialObjectsList;
-    /** Random number generator for generating comets */
-    protected static Random rand;
+    /** Parallel tile rasterizer used when renderer is tiled, null when drawing with Graphics calls */
+    protected TileRasterizer rasterizer;
+    /** Schedule of when each comet in the list leaves the canvas */
+    protected ExpiryWheel expiryWheel;
+    /** Number of ticks completed so far */
+    protected long tick_count;
+    /** Number of comets the expiry wheel marked as off-screen that are still in the list */
+    private int expired_pending;
+    /** Snapshot of the list reused by every frame, entries past paint_count are null */
+    private CelestialObject[] paint_scratch = new CelestialObject[0];
+    /** Number of objects in the last snapshot */
+    private int paint_count;
+    /** Position and velocity of the comet being advanced under gravity, reused since ticks run on one thread */
+    private final double[] gravity_state = new double[4];
+    /** Acceleration scratch for advanceUnderGravity, reused for the same reason */
+    private final double[] gravity_accel = new double[2];
+    /** Memory-mapped comet storage used when body_store is mapped, null when comets are kept in the list */
+    protected MappedBodyStore bodyStore;
+    /** Random number generator for generating comets, seeded from the config when it has a seed */
+    protected final Random rand;
 
     /**
      * Default constructor that uses the default configuration file
@@ -132,87 +209,152 @@ public class MassiveMotion extends JPanel implements ActionListener {
 
     /**
      * Constructor that reads configuration from a property file
+     * If hot_reload is on, the file is watched and changes are applied while the simulation runs
      * @param propFile name of the property file to be read
      */
-     public MassiveMotion(String propFile) {
-        rand = new Random();
-        System.out.println("MassiveMotion Constructor begins");
-        System.out.println("Reading config file: " + propFile);
+    public MassiveMotion(String propFile) {
+        this(loadConfig(propFile));
+        if (config.hot_reload) {
+            if (new ConfigWatcher(propFile, pendingConfig::set).start()) {
+                System.out.println("Watching config file " + propFile + " for changes\n");
+            } else {
+                System.out.println("Config file " + propFile + " is not on the file system, hot reload disabled\n");
+            }
+        }
+    }
+
+    /**
+     * Constructor that uses an already parsed configuration
+     * @param config configuration of the simulation
+     */
+    public MassiveMotion(SimulationConfig config) {
+        this(config, true);
+    }
+
+    /**
+     * Constructor that uses an already parsed configuration, optionally without console output
+     * Nothing is shared between instances, so many simulations can be built and run side by side
+     * @param config configuration of the simulation
+     * @param verbose true to print the configuration and construction progress
+     */
+     MassiveMotion(SimulationConfig config, boolean verbose) {
+         rand = config.seed == null ? new Random() : new Random(config.seed);
+         if (verbose) {
+             System.out.println("MassiveMotion Constructor begins");
+             config.print();
+         }
+         this.config = config;
 
-        Properties prop = new Properties();
-         try {
-             // Try to load from file system
-             InputStream is;
-             try {
-                 is = new FileInputStream(propFile);
-                 System.out.println("Config file " + propFile + " found and opened.");
-             } catch (IOException e) {
-                 // Try to load from resources if file cannot be found
-                 is = getClass().getResourceAsStream(propFile);
-                 if (is == null) { throw new IOException("Cannot find config file: " + propFile); }
-                 System.out.println("Config file loaded from resources.");
-             }
-             prop.load(is);
-
-             timer_delay = Integer.parseInt(prop.getProperty("timer_delay"));
-             list = prop.getProperty("list");
-
-             System.out.println("\nConfiguration loaded.");
-             System.out.println("Timer delay: " + timer_delay + "ms");
-             System.out.println("List type: " + list);
-
-             window_size_x = Integer.parseInt(prop.getProperty("window_size_x"));
-             window_size_y = Integer.parseInt(prop.getProperty("window_size_y"));
-             System.out.println("Window size: " + window_size_x + " x " + window_size_y);
-
-             gen_x = Double.parseDouble(prop.getProperty("gen_x"));
-             gen_y = Double.parseDouble(prop.getProperty("gen_y"));
-             System.out.println("Generation probability - X: " + gen_x + ", Y: " + gen_y);
-
-             body_size = Integer.parseInt(prop.getProperty("body_size"));
-             body_mass = Double.parseDouble(prop.getProperty("body_mass"));
-             body_velocity = Integer.parseInt(prop.getProperty("body_velocity"));
-             System.out.println("Comet properties - Size: " + body_size + ", Velocity range: ±" + body_velocity);
-
-             star_position_x = Integer.parseInt(prop.getProperty("star_position_x"));
-             star_position_y = Integer.parseInt(prop.getProperty("star_position_y"));
-             star_size = Integer.parseInt(prop.getProperty("star_size"));
-             star_mass = Double.parseDouble(prop.getProperty("star_mass"));
-             star_velocity_x = Integer.parseInt(prop.getProperty("star_velocity_x"));
-             star_velocity_y = Integer.parseInt(prop.getProperty("star_velocity_y"));
-             System.out.println("Star properties - Position: (" + star_position_x + "," + star_position_y +
-                     "), Size: " + star_size + ", Velocity: (" + star_velocity_x + "," + star_velocity_y + ")");
-
-             celestialObjectsList = createList(list);
-
-             // Create star object first using the configurations from the property file
-             CelestialObject star = new CelestialObject(star_position_x, star_position_y,
-                     star_size, star_mass, star_velocity_x, star_velocity_y, true);
-             celestialObjectsList.add(star);
+         celestialObjectsList = createList(config.list);
+         expiryWheel = new ExpiryWheel(config.window_size_x, config.window_size_y);
+         if (config.renderer.equalsIgnoreCase("tiled")) {
+             rasterizer = new TileRasterizer(config.window_size_x, config.window_size_y, config.render_threads);
+         }
+         if (config.body_store.equalsIgnoreCase("mapped")) {
+             bodyStore = new MappedBodyStore(config.body_store_dir);
+             if (verbose) { System.out.println("Comets stored in memory-mapped file"); }
+         }
+
+         // Create star object first using the configurations from the property file
+         CelestialObject star = new CelestialObject(config.star_position_x, config.star_position_y,
+                 config.star_size, config.star_mass, config.star_velocity_x, config.star_velocity_y, true);
+         celestialObjectsList.add(star);
+         stars = new CelestialObject[] { star };
+         mergePending();
+         if (verbose) {
              System.out.println("Star created and added to list");
              System.out.println("List size after star: " + celestialObjectsList.size());
+         }
 
-             generateInitialComets();
+         generateInitialComets();
+         if (verbose) { System.out.println("Constructor Complete\n"); }
 
-             is.close();
-             System.out.println("Constructor Complete\n");
-         } catch (IOException e) {
-             System.err.println("Error reading property file: " + e.getMessage());
-         }
-         tm = new Timer(timer_delay, this); // First argument with delay with value from config file.
-         System.out.println("Timer created with delay: " + timer_delay + " ms\n");
+         tm = new Timer(config.timer_delay, this); // First argument with delay with value from config file.
+         if (verbose) { System.out.println("Timer created with delay: " + config.timer_delay + " ms\n"); }
+
+         for (int i = 0; i < config.spawner_threads; i++) { startSpawner(i, config.spawner_threads); }
      }
 
+    /**
+     * Merges comets added by other threads when the list is a ConcurrentBodyList
+     */
+    private void mergePending() {
+        if (celestialObjectsList instanceof ConcurrentBodyList) {
+            ((ConcurrentBodyList<CelestialObject>) celestialObjectsList).mergePending();
+        }
+    }
+
+    /**
+     * Starts a daemon thread that generates comets once per timer delay
+     * The spawn probabilities are split between the threads so the total rate matches gen_x and gen_y.
+     * Each thread has its own Random, derived from the config seed and its id when there is a seed, so the
+     * threads do not contend on one generator and each draws a repeatable sequence.
+     * @param id number of the spawner, used in the thread name and seed
+     * @param count total number of spawner threads
+     */
+    private void startSpawner(int id, int count) {
+        // Spreads the ids over the seed bits, since Random gives correlated first values for adjacent seeds
+        Random spawnerRand = config.seed == null ? new Random()
+                : new Random(config.seed ^ (0x9E3779B97F4A7C15L * (id + 1)));
+        Thread spawner = new Thread(() -> {
+            try {
+                while (true) {
+                    SimulationConfig current = config;
+                    if (spawnerRand.nextDouble() < current.gen_x / count) { generateComet(true, spawnerRand); }
+                    if (spawnerRand.nextDouble() < current.gen_y / count) { generateComet(false, spawnerRand); }
+                    Thread.sleep(current.timer_delay);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "comet-spawner-" + id);
+        spawner.setDaemon(true);
+        spawner.start();
+    }
+
+    /**
+     * Reads the configuration file for the constructor
+     * @param propFile name of the property file to be read
+     * @return parsed configuration
+     * @throws IllegalStateException if the file cannot be read or is invalid
+     */
+    private static SimulationConfig loadConfig(String propFile) {
+        System.out.println("Reading config file: " + propFile);
+        try {
+            return SimulationConfig.load(propFile);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error reading property file: " + e.getMessage());
+            throw new IllegalStateException("Cannot start without a valid config file", e);
+        }
+    }
+
+    /**
+     * Swaps in the configuration published by the file watcher, if there is one
+     * Only the reloadable values are taken, other changes are reported and need a restart
+     */
+    private void applyPendingConfig() {
+        SimulationConfig update = pendingConfig.getAndSet(null);
+        if (update == null) { return; }
+        SimulationConfig next = config.withReloadable(update);
+        String changes = config.describeChanges(next);
+        String ignored = next.describeChanges(update);
+        if (!changes.isEmpty()) { System.out.println("Config reloaded: " + changes); }
+        if (!ignored.isEmpty()) { System.out.println("Config changes that need a restart: " + ignored); }
+        if (next.timer_delay != config.timer_delay) { tm.setDelay(next.timer_delay); }
+        config = next;
+    }
+
     /**
      * Creates List implementation based on config list value
      * @param list type of list from the property file
      * @return List implementation being used
      */
-     private List<CelestialObject> createList(String list) {
+     static <T> List<T> createList(String list) {
          return switch (list.toLowerCase()) {
              case "single" -> new LinkedList<>();
              case "double" -> new DoublyLinkedList<>();
              case "dummyhead" -> new DummyHeadLinkedList<>();
+             case "concurrent" -> new ConcurrentBodyList<>();
              default -> new ArrayList<>();
          };
      }
@@ -223,54 +365,221 @@ public class MassiveMotion extends JPanel implements ActionListener {
      */
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
-        try {
-            // Draws each object, star is red and other objects are black
-            for (int i = 0; i < celestialObjectsList.size(); i++) {
-                CelestialObject obj = celestialObjectsList.get(i);
-                if (obj.isStar()) {
-                    g.setColor(Color.RED);
-                } else {
-                    g.setColor(Color.BLACK);
-                }
-                // Draws an oval at the object's position
-                g.fillOval(obj.get_position_x() - obj.get_size() / 2,
-                        obj.get_position_y() - obj.get_size() / 2,
-                        obj.get_size(), obj.get_size());
+        if (rasterizer != null) {
+            paintTiled(g);
+            tm.start();
+            return;
+        }
+        // Draws each object, star is red and other objects are black
+        int n = snapshotList();
+        for (int i = 0; i < n; i++) {
+            CelestialObject obj = paint_scratch[i];
+            if (obj.isStar()) {
+                g.setColor(Color.RED);
+            } else {
+                g.setColor(Color.BLACK);
             }
-        } catch (Exception e) {
-            System.err.println("Error painting celestial objects: " + e.getMessage());
+            // Draws an oval at the object's position
+            g.fillOval(obj.get_position_x() - obj.get_size() / 2,
+                    obj.get_position_y() - obj.get_size() / 2,
+                    obj.get_size(), obj.get_size());
+        }
+        if (bodyStore != null) {
+            g.setColor(Color.BLACK);
+            bodyStore.forEach((x, y, size) ->
+                    g.fillOval((int) Math.round(x) - size / 2, (int) Math.round(y) - size / 2, size, size));
         }
         tm.start();
     }
 
+    /**
+     * Paints the canvas with the parallel tile rasterizer
+     * Objects are queued in the same order and colors as paintComponent draws them
+     * @param g Graphics object
+     */
+    private void paintTiled(Graphics g) {
+        rasterizer.begin(getBackground().getRGB());
+        int red = Color.RED.getRGB(), black = Color.BLACK.getRGB();
+        int n = snapshotList();
+        for (int i = 0; i < n; i++) {
+            CelestialObject obj = paint_scratch[i];
+            rasterizer.add(obj.get_position_x(), obj.get_position_y(), obj.get_size(), obj.isStar() ? red : black);
+        }
+        if (bodyStore != null) {
+            bodyStore.forEach((x, y, size) -> rasterizer.add((int) Math.round(x), (int) Math.round(y), size, black));
+        }
+        g.drawImage(rasterizer.render(), 0, 0, null);
+    }
+
+    /**
+     * Copies the list into the reusable paint array, growing it with headroom so a growing list does not
+     * allocate a new array every frame. Entries left over from a longer snapshot are cleared, so the array does
+     * not keep removed comets reachable.
+     * @return number of objects copied
+     */
+    private int snapshotList() {
+        int n = celestialObjectsList.size();
+        if (paint_scratch.length < n) { paint_scratch = new CelestialObject[n * 2]; }
+        paint_scratch = celestialObjectsList.toArray(paint_scratch);
+        if (paint_count > n) { Arrays.fill(paint_scratch, n, paint_count, null); }
+        paint_count = n;
+        return n;
+    }
+
     /**
      * Uses timer events to update celestial object positions
      * @param actionEvent the event to be processed
      */
     @Override
     public void actionPerformed(ActionEvent actionEvent) {
-        // Generate new comets based on probability
-        if (rand.nextDouble() < gen_x) {
-            generateComet(true); // generate on x axis
+        tick();
+        repaint();
+    }
+
+    /**
+     * Advances the simulation by one tick without drawing anything
+     * Spawns comets, moves every object and removes comets that left the canvas
+     */
+    void tick() {
+        applyPendingConfig();
+        // Generate new comets based on probability, unless spawner threads do it
+        if (config.spawner_threads == 0) {
+            if (rand.nextDouble() < config.gen_x) {
+                generateComet(true); // generate on x axis
+            }
+            if (rand.nextDouble() < config.gen_y) {
+                generateComet(false); // generate on y axis
+            }
         }
-        if (rand.nextDouble() < gen_y) {
-            generateComet(false); // generate on y axis
+        // Comets added since the last tick join the list here
+        mergePending();
+        // Remove objects the expiry wheel found off-screen last tick
+        if (expired_pending > 0) {
+            celestialObjectsList.removeIf(CelestialObject::isExpired);
+            expired_pending = 0;
         }
         // Update objects position
-        try {
-            // Iterates backwards to avoid skipping elements
-            for (int i = celestialObjectsList.size() - 1; i >= 0; i--) {
-                CelestialObject obj = celestialObjectsList.get(i);
-                obj.updatePosition();
-                // Remove objects off-screen
-                if (obj.isOffScreen(window_size_x, window_size_y) && !obj.isStar()) {
-                    celestialObjectsList.remove(i);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error updating celestial objects: " + e.getMessage());
+        celestialObjectsList.forEach(this::updateComet);
+        if (bodyStore != null) { bodyStore.advance(this); }
+        for (CelestialObject star : stars) { star.updatePosition(); }
+        tick_count++;
+        expired_pending += expiryWheel.expire(tick_count);
+        // Only the mapped store is reordered, the config rejects morton_interval for comets kept in the list
+        if (bodyStore != null && config.morton_interval > 0 && tick_count % config.morton_interval == 0) {
+            bodyStore.sortNextWindow();
+        }
+    }
+
+    /**
+     * Moves one object of the list by a tick, stars are skipped since they are moved after the comets
+     * @param obj object to move
+     */
+    private void updateComet(CelestialObject obj) {
+        if (obj.isStar()) { return; }
+        // New comets are scheduled the first time they are updated
+        if (obj.get_expiry_tick() < 0) { expiryWheel.schedule(obj, tick_count); }
+        if (config.gravity_constant == 0) {
+            obj.updatePosition();
+        } else {
+            advanceUnderGravity(obj);
+            // Gravity bends the path, so the predicted exit may have moved
+            expiryWheel.reschedule(obj, tick_count + 1);
+        }
+    }
+
+    /**
+     * Advances a comet by one tick under the gravity of the stars
+     * Copies the comet into a reused state array so list comets go through the same integrator as the
+     * memory-mapped store and the domain workers
+     * @param obj comet to advance
+     */
+    private void advanceUnderGravity(CelestialObject obj) {
+        double[] state = gravity_state;
+        state[0] = obj.position_x;
+        state[1] = obj.position_y;
+        state[2] = obj.velocity_x;
+        state[3] = obj.velocity_y;
+        advanceUnderGravity(state, gravity_accel, config, stars);
+        obj.position_x = state[0];
+        obj.position_y = state[1];
+        obj.velocity_x = state[2];
+        obj.velocity_y = state[3];
+    }
+
+    /**
+     * Advances a comet stored as primitives by one tick under the gravity of the stars
+     * Velocity is updated before it moves the comet in each sub-step (semi-implicit Euler), which keeps orbits
+     * around a star from gaining energy. The tick is split into 2^level equal sub-steps, where the level comes
+     * from the comet's local acceleration, so only comets close to a star pay for the fine steps.
+     * @param state x position, y position, x velocity and y velocity, updated in place
+     * @param accel scratch array of two entries for the acceleration, passed in so the caller can reuse it
+     * @param config configuration with the gravity and sub-stepping settings
+     * @param stars stars pulling on the comet
+     */
+    static void advanceUnderGravity(double[] state, double[] accel, SimulationConfig config, CelestialObject[] stars) {
+        int substeps = 1 << substepLevel(state[0], state[1], state[2], state[3], config, stars);
+        double dt = 1.0 / substeps;
+        for (int s = 0; s < substeps; s++) {
+            computeAcceleration(state[0], state[1], accel, config, stars);
+            state[2] += accel[0] * dt;
+            state[3] += accel[1] * dt;
+            state[0] += state[2] * dt;
+            state[1] += state[3] * dt;
+        }
+    }
+
+    /**
+     * Chooses the power-of-two sub-step level for a comet
+     * The step has to be short compared to the free-fall time sqrt(r / a) around each star,
+     * and, when the star is within one tick's travel, short enough that the comet cannot cross its radius in one
+     * sub-step. Comets out of reach of every star are not slowed down by the crossing limit.
+     * @param x x position
+     * @param y y position
+     * @param vel_x x velocity
+     * @param vel_y y velocity
+     * @param config configuration with the gravity and sub-stepping settings
+     * @param stars stars pulling on the comet
+     * @return sub-step level in range [0, max_substep_level]
+     */
+    private static int substepLevel(double x, double y, double vel_x, double vel_y,
+                                    SimulationConfig config, CelestialObject[] stars) {
+        double speed = Math.hypot(vel_x, vel_y);
+        double dt = 1.0;
+        for (CelestialObject star : stars) {
+            double dx = star.position_x - x;
+            double dy = star.position_y - y;
+            double r = Math.max(Math.hypot(dx, dy), Math.max(star.size / 2.0, 1.0));
+            double accel = config.gravity_constant * star.mass / (r * r);
+            dt = Math.min(dt, config.substep_accuracy * Math.sqrt(r / accel));
+            double radius = star.size / 2.0;
+            if (speed > 0 && radius > 0 && r - radius < speed) { dt = Math.min(dt, radius / speed); }
+        }
+        if (dt >= 1.0) { return 0; }
+        int level = (int) Math.ceil(Math.log(1.0 / dt) / Math.log(2));
+        return Math.min(level, config.max_substep_level);
+    }
+
+    /**
+     * Sums the acceleration toward every star at a position
+     * Distances are clamped to the star radius so a comet passing through a star does not blow up
+     * @param x x position
+     * @param y y position
+     * @param accel array receiving the x and y acceleration
+     * @param config configuration with the gravity constant
+     * @param stars stars pulling on the comet
+     */
+    private static void computeAcceleration(double x, double y, double[] accel,
+                                            SimulationConfig config, CelestialObject[] stars) {
+        accel[0] = 0;
+        accel[1] = 0;
+        for (CelestialObject star : stars) {
+            double dx = star.position_x - x;
+            double dy = star.position_y - y;
+            double r = Math.max(Math.hypot(dx, dy), Math.max(star.size / 2.0, 1.0));
+            double a = config.gravity_constant * star.mass / (r * r);
+            accel[0] += a * dx / r;
+            accel[1] += a * dy / r;
         }
-        repaint();
     }
 
     /**
@@ -278,29 +587,65 @@ public class MassiveMotion extends JPanel implements ActionListener {
      * @param on_x_axis true to generate on x-axis (top/bottom), false for y-axis (left/right)
      */
     private void generateComet(boolean on_x_axis) {
+        generateComet(on_x_axis, rand);
+    }
+
+    /**
+     * Generates a new comet at the edge of the canvas with a given random number generator
+     * @param on_x_axis true to generate on x-axis (top/bottom), false for y-axis (left/right)
+     * @param rand random number generator to use
+     */
+    private void generateComet(boolean on_x_axis, Random rand) {
+        int[] comet = randomEdgeComet(on_x_axis, rand, config);
+        createEdgeComet(comet[0], comet[1], comet[2], comet[3]);
+    }
+
+    /**
+     * Picks a random position on the edge of the canvas and a random velocity for a new comet
+     * @param on_x_axis true to generate on x-axis (top/bottom), false for y-axis (left/right)
+     * @param rand random number generator to use
+     * @param config configuration with the window size and velocity range
+     * @return x position, y position, x velocity and y velocity
+     */
+    static int[] randomEdgeComet(boolean on_x_axis, Random rand, SimulationConfig config) {
         int x, y, vel_x, vel_y;
 
         if (on_x_axis) {
             // Generate on top or bottom edge
-            x = rand.nextInt(window_size_x);
+            x = rand.nextInt(config.window_size_x);
             if (rand.nextBoolean()) {
                 y = 0;
             } else {
-                y = window_size_y;
+                y = config.window_size_y;
             }
         } else {
             // Generate on left or right edge
             if (rand.nextBoolean()) {
                 x = 0;
             } else {
-                x = window_size_x;
+                x = config.window_size_x;
             }
-            y = rand.nextInt(window_size_y);
+            y = rand.nextInt(config.window_size_y);
         }
-        vel_x = getRandomVelocity();
-        vel_y = getRandomVelocity();
+        vel_x = getRandomVelocity(rand, config);
+        vel_y = getRandomVelocity(rand, config);
+
+        return new int[] { x, y, vel_x, vel_y };
+    }
+
+    /**
+     * @return number of objects in the simulation, including stars and comets in the body store
+     */
+    long bodyCount() {
+        return celestialObjectsList.size() + (bodyStore == null ? 0 : bodyStore.size());
+    }
 
-        createEdgeComet(x, y, vel_x, vel_y);
+    /**
+     * Generates comets at random edges of the canvas, alternating between the x and y axis
+     * @param count number of comets to generate
+     */
+    void spawnComets(int count) {
+        for (int i = 0; i < count; i++) { generateComet(i % 2 == 0); }
     }
 
     /**
@@ -310,17 +655,17 @@ public class MassiveMotion extends JPanel implements ActionListener {
         int numInitialComets = 5;
         for (int i = 0; i < numInitialComets; i++) {
             // Top edge (moves downward)
-            createEdgeComet(rand.nextInt(window_size_x), 0,
-                    getRandomVelocity(), rand.nextInt(body_velocity) + 1);
+            createEdgeComet(rand.nextInt(config.window_size_x), 0,
+                    getRandomVelocity(), rand.nextInt(config.body_velocity) + 1);
             // Bottom edge (moves upward)
-            createEdgeComet(rand.nextInt(window_size_x), window_size_y,
-                    getRandomVelocity(), -(rand.nextInt(body_velocity) + 1));
+            createEdgeComet(rand.nextInt(config.window_size_x), config.window_size_y,
+                    getRandomVelocity(), -(rand.nextInt(config.body_velocity) + 1));
             // Left edge (moves right)
-            createEdgeComet(0, rand.nextInt(window_size_y),
-                    rand.nextInt(body_velocity) + 1, getRandomVelocity());
+            createEdgeComet(0, rand.nextInt(config.window_size_y),
+                    rand.nextInt(config.body_velocity) + 1, getRandomVelocity());
             // Right edge (moves left)
-            createEdgeComet(window_size_x, rand.nextInt(window_size_y),
-                    -(rand.nextInt(body_velocity) + 1), getRandomVelocity());
+            createEdgeComet(config.window_size_x, rand.nextInt(config.window_size_y),
+                    -(rand.nextInt(config.body_velocity) + 1), getRandomVelocity());
         }
     }
 
@@ -332,7 +677,11 @@ public class MassiveMotion extends JPanel implements ActionListener {
      * @param vel_y y velocity
      */
     private void createEdgeComet(int pos_x, int pos_y, int vel_x, int vel_y) {
-        CelestialObject comet = new CelestialObject(pos_x, pos_y, body_size, body_mass, vel_x, vel_y, false);
+        if (bodyStore != null) {
+            bodyStore.add(pos_x, pos_y, vel_x, vel_y, config.body_size);
+            return;
+        }
+        CelestialObject comet = new CelestialObject(pos_x, pos_y, config.body_size, config.body_mass, vel_x, vel_y, false);
         celestialObjectsList.add(comet);
     }
 
@@ -341,18 +690,88 @@ public class MassiveMotion extends JPanel implements ActionListener {
      * @return random velocity value
      */
     private int getRandomVelocity() {
-        int velocity = rand.nextInt(body_velocity * 2 + 1) - body_velocity;
+        return getRandomVelocity(rand, config);
+    }
+
+    /**
+     * Gets a random velocity in range [-body_velocity, +body_velocity] not zero
+     * @param rand random number generator to use
+     * @param config configuration with the velocity range
+     * @return random velocity value
+     */
+    static int getRandomVelocity(Random rand, SimulationConfig config) {
+        int velocity = rand.nextInt(config.body_velocity * 2 + 1) - config.body_velocity;
         if (velocity == 0) { return 1; }
         else { return velocity; }
     }
 
     /**
      * Main method to start the application
-     * @param args command line arguments (property file name)
+     * @param args command line arguments (property file name), or --stress or --morton-bench followed by an
+     *             optional property file name, or --ensemble followed by a directory or sweep file, or
+     *             --distributed followed by the number of worker processes, an optional property file name and
+     *             an optional number of ticks to run headless, or --conformance followed by an optional seed and
+     *             sequence count, or --bench-gate followed by an optional --record, an optional --baseline and
+     *             baseline file name, and an optional property file name
      */
     public static void main(String[] args) {
         System.out.println("Massive Motion starting...");
 
+        if (args.length > 0 && args[0].equals("--stress")) {
+            StressMode.run(loadConfig(args.length > 1 ? args[1] : "MassiveMotion.txt"));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--ensemble")) {
+            if (args.length < 2) {
+                System.err.println("Usage: java MassiveMotion --ensemble <config directory or sweep file> [ticks] [threads]");
+                return;
+            }
+            EnsembleRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--distributed")) {
+            if (args.length < 2) {
+                System.err.println("Usage: java MassiveMotion --distributed <workers> [config file] [ticks]");
+                return;
+            }
+            int workers = Integer.parseInt(args[1]);
+            if (workers < 1) {
+                System.err.println("Usage: java MassiveMotion --distributed <workers> [config file] [ticks], workers must be at least 1");
+                return;
+            }
+            DomainCoordinator.run(loadConfig(args.length > 2 ? args[2] : "MassiveMotion.txt"),
+                    workers, args.length > 3 ? Integer.parseInt(args[3]) : 0);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--conformance")) {
+            boolean passed = ListConformance.run(args.length > 1 ? Long.parseLong(args[1]) : 0,
+                    args.length > 2 ? Integer.parseInt(args[2]) : ListConformance.DEFAULT_SEQUENCES);
+            if (!passed) { System.exit(1); }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--bench-gate")) {
+            int next = 1;
+            boolean record = args.length > next && args[next].equals("--record");
+            if (record) { next++; }
+            String baseline = BenchmarkGate.BASELINE_FILE;
+            if (args.length > next && args[next].equals("--baseline")) {
+                if (args.length == next + 1) {
+                    System.err.println("Usage: java MassiveMotion --bench-gate [--record] [--baseline <file>] [config file]");
+                    System.exit(1);
+                }
+                baseline = args[next + 1];
+                next += 2;
+            }
+            boolean passed = BenchmarkGate.run(loadConfig(args.length > next ? args[next] : "MassiveMotion.txt"),
+                    record, baseline);
+            if (!passed) { System.exit(1); }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--morton-bench")) {
+            StressMode.compareMorton(loadConfig(args.length > 1 ? args[1] : "MassiveMotion.txt"));
+            return;
+        }
+
         MassiveMotion mm;
         if (args.length == 0) {
             System.out.println("No config file argument provided, using default: MassiveMotion.txt");
@@ -364,7 +783,7 @@ public class MassiveMotion extends JPanel implements ActionListener {
 
         JFrame jf = new JFrame();
         jf.setTitle("Massive Motion");
-        jf.setSize(mm.window_size_x, mm.window_size_y);
+        jf.setSize(mm.config.window_size_x, mm.config.window_size_y);
         jf.add(mm);
         jf.setVisible(true);
         jf.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
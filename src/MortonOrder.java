@@ -0,0 +1,83 @@
+import java.util.Arrays;
+
+/**
+ * Morton (Z-curve) ordering of bodies by position
+ * Interleaving the bits of the x and y coordinates gives a key where bodies that are close on the canvas are
+ * usually close in key order, so sorting the body store by key keeps neighbours next to each other in memory.
+ * Keys are sorted with a least significant digit radix sort over primitive ints, which is O(n) and needs no
+ * comparisons or boxing.
+ */
+public class MortonOrder {
+    /** Bits per coordinate, positions are clamped to [0, 65535] */
+    private static final int COORDINATE_BITS = 16;
+    /** Bits sorted per radix pass */
+    private static final int RADIX_BITS = 8;
+
+    /**
+     * Computes the Morton key of a position
+     * Positions just off the canvas are clamped to its edge, which keeps them next to their on-screen neighbours
+     * @param x x position
+     * @param y y position
+     * @return key with the bits of x in even positions and the bits of y in odd positions
+     */
+    public static int key(double x, double y) {
+        return spread(clamp(x)) | (spread(clamp(y)) << 1);
+    }
+
+    /**
+     * Finds the order that sorts keys in ascending unsigned order
+     * The sort is stable, so bodies with the same key keep their current order
+     * @param keys Morton keys, left unchanged
+     * @param n number of keys to sort
+     * @param order scratch array of at least n entries, passed in so callers sorting often can reuse it
+     * @param swap second scratch array of at least n entries
+     * @return the scratch array holding the result, where entry i is the index of the key that belongs at
+     *         position i
+     */
+    public static int[] sortedOrder(int[] keys, int n, int[] order, int[] swap) {
+        for (int i = 0; i < n; i++) { order[i] = i; }
+        int[] counts = new int[1 << RADIX_BITS];
+        for (int shift = 0; shift < 2 * COORDINATE_BITS; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) { counts[(keys[order[i]] >>> shift) & 0xFF]++; }
+            // Keys of a canvas smaller than 65536 pixels share their high digits, so those passes are skipped
+            if (n > 0 && counts[(keys[order[0]] >>> shift) & 0xFF] == n) { continue; }
+            // Turn counts into starting positions of each digit
+            int position = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int count = counts[d];
+                counts[d] = position;
+                position += count;
+            }
+            for (int i = 0; i < n; i++) { swap[counts[(keys[order[i]] >>> shift) & 0xFF]++] = order[i]; }
+            int[] temp = order;
+            order = swap;
+            swap = temp;
+        }
+        return order;
+    }
+
+    /**
+     * Clamps a coordinate to the range that fits in the key
+     * @param value coordinate in pixels
+     * @return coordinate in range [0, 65535]
+     */
+    private static int clamp(double value) {
+        if (value <= 0) { return 0; }
+        return (int) Math.min(value, (1 << COORDINATE_BITS) - 1);
+    }
+
+    /**
+     * Spreads the low 16 bits of a value so there is a zero bit between each of them
+     * @param value value to spread
+     * @return spread value
+     */
+    private static int spread(int value) {
+        value &= 0x0000FFFF;
+        value = (value | (value << 8)) & 0x00FF00FF;
+        value = (value | (value << 4)) & 0x0F0F0F0F;
+        value = (value | (value << 2)) & 0x33333333;
+        value = (value | (value << 1)) & 0x55555555;
+        return value;
+    }
+}
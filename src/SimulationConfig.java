@@ -0,0 +1,278 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of a MassiveMotion configuration file
+ * A new SimulationConfig is built every time the file is read, so a running simulation can swap to a
+ * new snapshot in one step instead of having its settings changed underneath it
+ */
+public final class SimulationConfig {
+    /** Keys that can be changed while the simulation is running */
+    public static final String[] RELOADABLE_KEYS = { "timer_delay", "gen_x", "gen_y", "body_velocity" };
+    /** Every key read from the configuration file */
+    public static final String[] KEYS = { "timer_delay", "list", "window_size_x", "window_size_y",
+            "gen_x", "gen_y", "body_size", "body_mass", "body_velocity",
+            "star_position_x", "star_position_y", "star_size", "star_mass", "star_velocity_x", "star_velocity_y",
+            "gravity_constant", "max_substep_level", "substep_accuracy", "hot_reload",
+            "body_store", "body_store_dir", "spawner_threads", "morton_interval",
+            "renderer", "render_threads", "seed" };
+
+    /** Delay between timer updates in ms */
+    public final int timer_delay;
+    /** Type of list implementation used */
+    public final String list;
+    /** Width and height of the canvas window in pixels */
+    public final int window_size_x, window_size_y;
+    /** Probability of generating comets on x-axis, y-axis, and mass of comets in kg*/
+    public final double gen_x, gen_y, body_mass;
+    /** Size/radius of generated comet objects in pixels and max velocity range for generated comets*/
+    public final int body_size, body_velocity;
+    /** Initial x and y position of the central star, size/radius of the star, and velocity of the star along the x and y axis*/
+    public final int star_position_x, star_position_y, star_size, star_velocity_x, star_velocity_y;
+    /** Mass of star in kg */
+    public final double star_mass;
+    /** Gravitational constant scaling star mass into pixels per tick squared, 0 disables gravity */
+    public final double gravity_constant;
+    /** Highest sub-stepping level, a body at level k advances in 2^k sub-steps per tick */
+    public final int max_substep_level;
+    /** Accuracy factor for choosing sub-steps, smaller values give finer steps near stars */
+    public final double substep_accuracy;
+    /** True to watch the configuration file and apply changes while running */
+    public final boolean hot_reload;
+    /** Where comets are kept: heap (in the list) or mapped (in a memory-mapped file) */
+    public final String body_store;
+    /** Directory for the memory-mapped body file, null for the system temporary directory */
+    public final String body_store_dir;
+    /** Number of threads generating comets, 0 to generate them in the update loop */
+    public final int spawner_threads;
+    /** Ticks between sorting a window of the mapped store by Morton key of position, 0 to never sort */
+    public final int morton_interval;
+    /** How the canvas is drawn: graphics (Swing Graphics calls) or tiled (parallel software rasterizer) */
+    public final String renderer;
+    /** Number of threads drawing tiles when renderer is tiled */
+    public final int render_threads;
+    /** Seed for the comet random number generator, null for a different run every time */
+    public final Long seed;
+
+    /** Values the snapshot was parsed from */
+    private final Properties source;
+
+    /**
+     * Parses and validates a configuration
+     * @param prop properties read from a configuration file
+     * @throws IllegalArgumentException if a required key is missing or a value is invalid
+     */
+    public SimulationConfig(Properties prop) {
+        source = new Properties();
+        for (String key : prop.stringPropertyNames()) { source.setProperty(key, prop.getProperty(key).trim()); }
+
+        timer_delay = getInt("timer_delay", null);
+        list = getString("list", null);
+        window_size_x = getInt("window_size_x", null);
+        window_size_y = getInt("window_size_y", null);
+        gen_x = getDouble("gen_x", null);
+        gen_y = getDouble("gen_y", null);
+        body_size = getInt("body_size", null);
+        body_mass = getDouble("body_mass", null);
+        body_velocity = getInt("body_velocity", null);
+        star_position_x = getInt("star_position_x", null);
+        star_position_y = getInt("star_position_y", null);
+        star_size = getInt("star_size", null);
+        star_mass = getDouble("star_mass", null);
+        star_velocity_x = getInt("star_velocity_x", null);
+        star_velocity_y = getInt("star_velocity_y", null);
+        gravity_constant = getDouble("gravity_constant", "0");
+        max_substep_level = getInt("max_substep_level", "6");
+        substep_accuracy = getDouble("substep_accuracy", "0.05");
+        hot_reload = Boolean.parseBoolean(getString("hot_reload", "true"));
+        body_store = getString("body_store", "heap");
+        body_store_dir = source.getProperty("body_store_dir");
+        spawner_threads = getInt("spawner_threads", "0");
+        morton_interval = getInt("morton_interval", "0");
+        renderer = getString("renderer", "graphics");
+        render_threads = getInt("render_threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        seed = source.getProperty("seed") == null ? null : getLong("seed", null);
+
+        check(timer_delay > 0, "timer_delay must be positive");
+        check(window_size_x > 0 && window_size_y > 0, "window size must be positive");
+        check(gen_x >= 0 && gen_x <= 1, "gen_x must be a probability in [0, 1]");
+        check(gen_y >= 0 && gen_y <= 1, "gen_y must be a probability in [0, 1]");
+        check(body_size >= 0 && star_size >= 0, "sizes cannot be negative");
+        check(body_velocity > 0, "body_velocity must be at least 1");
+        check(gravity_constant >= 0, "gravity_constant cannot be negative");
+        check(max_substep_level >= 0 && max_substep_level <= 20, "max_substep_level must be in [0, 20]");
+        check(substep_accuracy > 0, "substep_accuracy must be positive");
+        check(body_store.equalsIgnoreCase("heap") || body_store.equalsIgnoreCase("mapped"),
+                "body_store must be heap or mapped");
+        check(renderer.equalsIgnoreCase("graphics") || renderer.equalsIgnoreCase("tiled"),
+                "renderer must be graphics or tiled");
+        check(render_threads > 0, "render_threads must be positive");
+        check(morton_interval >= 0, "morton_interval cannot be negative");
+        check(morton_interval == 0 || body_store.equalsIgnoreCase("mapped"),
+                "morton_interval needs body_store = mapped");
+        check(spawner_threads >= 0, "spawner_threads cannot be negative");
+        check(spawner_threads == 0 || (list.equalsIgnoreCase("concurrent") && body_store.equalsIgnoreCase("heap")),
+                "spawner_threads needs list = concurrent and body_store = heap");
+    }
+
+    /**
+     * Reads a configuration from the file system, or from resources if the file cannot be found
+     * @param propFile name of the property file to be read
+     * @return parsed configuration
+     * @throws IOException if the file cannot be found or read
+     * @throws IllegalArgumentException if a required key is missing or a value is invalid
+     */
+    public static SimulationConfig load(String propFile) throws IOException {
+        Properties prop = new Properties();
+        InputStream is;
+        try {
+            is = new FileInputStream(propFile);
+        } catch (IOException e) {
+            // Try to load from resources if file cannot be found
+            is = SimulationConfig.class.getResourceAsStream(propFile);
+            if (is == null) { throw new IOException("Cannot find config file: " + propFile); }
+        }
+        try (InputStream in = is) {
+            prop.load(in);
+        }
+        return new SimulationConfig(prop);
+    }
+
+    /**
+     * Builds a copy of this configuration that takes only the reloadable values from another configuration
+     * @param update configuration read after the file changed
+     * @return new configuration, this one is left unchanged
+     */
+    public SimulationConfig withReloadable(SimulationConfig update) {
+        Properties prop = toProperties();
+        for (String key : RELOADABLE_KEYS) {
+            String value = update.source.getProperty(key);
+            if (value != null) { prop.setProperty(key, value); }
+        }
+        return new SimulationConfig(prop);
+    }
+
+    /**
+     * Builds a copy of this configuration with a single value replaced
+     * @param key configuration key
+     * @param value new value
+     * @return new configuration, this one is left unchanged
+     */
+    public SimulationConfig with(String key, String value) {
+        Properties prop = toProperties();
+        prop.setProperty(key, value);
+        return new SimulationConfig(prop);
+    }
+
+    /**
+     * Lists the values that differ from another configuration
+     * @param other configuration to compare against
+     * @return comma separated "key: old -> new" entries, empty if nothing differs
+     */
+    public String describeChanges(SimulationConfig other) {
+        StringBuilder changes = new StringBuilder();
+        for (String key : KEYS) {
+            String before = source.getProperty(key);
+            String after = other.source.getProperty(key);
+            if (before == null ? after != null : !before.equals(after)) {
+                if (changes.length() > 0) { changes.append(", "); }
+                changes.append(key).append(": ").append(before).append(" -> ").append(after);
+            }
+        }
+        return changes.toString();
+    }
+
+    /**
+     * @return copy of the values this configuration was parsed from
+     */
+    public Properties toProperties() {
+        Properties prop = new Properties();
+        prop.putAll(source);
+        return prop;
+    }
+
+    /**
+     * Prints the configuration to the console
+     */
+    public void print() {
+        System.out.println("\nConfiguration loaded.");
+        System.out.println("Timer delay: " + timer_delay + "ms");
+        System.out.println("List type: " + list);
+        System.out.println("Window size: " + window_size_x + " x " + window_size_y);
+        System.out.println("Generation probability - X: " + gen_x + ", Y: " + gen_y);
+        System.out.println("Comet properties - Size: " + body_size + ", Velocity range: ±" + body_velocity);
+        System.out.println("Star properties - Position: (" + star_position_x + "," + star_position_y +
+                "), Size: " + star_size + ", Velocity: (" + star_velocity_x + "," + star_velocity_y + ")");
+        System.out.println("Gravity constant: " + gravity_constant + ", Max sub-step level: " + max_substep_level);
+        System.out.println("Body store: " + body_store + ", Spawner threads: " + spawner_threads);
+        System.out.println("Renderer: " + renderer);
+    }
+
+    /**
+     * Reads a string value
+     * @param key configuration key
+     * @param fallback value used when the key is missing, null if the key is required
+     * @return value of the key
+     */
+    private String getString(String key, String fallback) {
+        String value = source.getProperty(key, fallback);
+        if (value == null) { throw new IllegalArgumentException("Missing config key: " + key); }
+        return value;
+    }
+
+    /**
+     * Reads an integer value
+     * @param key configuration key
+     * @param fallback value used when the key is missing, null if the key is required
+     * @return value of the key
+     */
+    private int getInt(String key, String fallback) {
+        String value = getString(key, fallback);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a whole number: " + value);
+        }
+    }
+
+    /**
+     * Reads a long integer value
+     * @param key configuration key
+     * @param fallback value used when the key is missing, null if the key is required
+     * @return value of the key
+     */
+    private long getLong(String key, String fallback) {
+        String value = getString(key, fallback);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a whole number: " + value);
+        }
+    }
+
+    /**
+     * Reads a decimal value
+     * @param key configuration key
+     * @param fallback value used when the key is missing, null if the key is required
+     * @return value of the key
+     */
+    private double getDouble(String key, String fallback) {
+        String value = getString(key, fallback);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value);
+        }
+    }
+
+    /**
+     * Throws if a validation rule does not hold
+     * @param valid result of the rule
+     * @param message description of the rule
+     */
+    private static void check(boolean valid, String message) {
+        if (!valid) { throw new IllegalArgumentException("Invalid config: " + message); }
+    }
+}
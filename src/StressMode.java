@@ -0,0 +1,179 @@
+import java.util.Arrays;
+
+/**
+ * Stress mode for finding the largest number of bodies each List implementation can move within the timer delay
+ * The memory-mapped body store is measured as an extra row
+ * For every backend the body count is doubled stage by stage, and every tick new comets are spawned to replace
+ * the ones that left the canvas so the count stays at the target. A stage whose 95th percentile tick time goes
+ * over timer_delay is repeated, and once it stays over on every attempt the backend is saturated and the next
+ * backend starts.
+ * Only the simulation update is timed, painting is not part of the measurement.
+ */
+public class StressMode {
+    /** List implementations to compare */
+    static final String[] BACKENDS = { "arraylist", "single", "double", "dummyhead", "concurrent" };
+    /** Body count of the first stage */
+    static final int START_BODIES = 250;
+    /** Body count where a backend stops even if it never saturates */
+    static final int MAX_BODIES = 1 << 20;
+    /** Ticks timed per stage */
+    static final int STAGE_TICKS = 60;
+    /** Ticks run before timing each stage so the JIT and the body count settle */
+    static final int WARMUP_TICKS = 15;
+    /** Times a stage is run before its body count counts as saturated, so one GC pause cannot end the ramp */
+    static final int STAGE_ATTEMPTS = 3;
+    /** Stages run before timing a Morton comparison */
+    static final int MORTON_WARMUP_STAGES = 20;
+    /** Stages timed per Morton comparison row */
+    static final int MORTON_STAGES = 8;
+
+    /**
+     * Result of one backend
+     */
+    static class Result {
+        String backend;
+        /** Highest body count that stayed within the tick budget, 0 if none did */
+        int sustained;
+        /** First body count that went over the budget, 0 if the backend never saturated */
+        int saturated;
+        /** Tick time percentiles of the last sustained stage in ms */
+        double p50, p95, p99, max;
+        /** Heap in use after the last sustained stage in MB */
+        double heap;
+    }
+
+    /**
+     * Runs every backend and prints the capacity table
+     * @param base configuration to stress, its list and spawn probabilities are overridden
+     */
+    public static void run(SimulationConfig base) {
+        Result[] results = new Result[BACKENDS.length + 1];
+        // Spawning is driven by the stress loop, not by probability
+        SimulationConfig heap = base.with("body_store", "heap").with("gen_x", "0").with("gen_y", "0");
+        for (int i = 0; i < BACKENDS.length; i++) {
+            results[i] = stress(heap.with("list", BACKENDS[i]));
+        }
+        results[BACKENDS.length] = stress(heap.with("body_store", "mapped"));
+        printTable(base.timer_delay, results);
+    }
+
+    /**
+     * Measures tick time of the memory-mapped store at a fixed body count with and without Morton reordering
+     * @param base configuration to measure, its spawn probabilities and body store are overridden
+     */
+    public static void compareMorton(SimulationConfig base) {
+        int bodies = 1 << 17;
+        int[] intervals = { 0, 16, 1 };
+        SimulationConfig store = base.with("gen_x", "0").with("gen_y", "0").with("body_store", "mapped");
+        StringBuilder table = new StringBuilder(String.format("%n%-10s %16s %9s %9s%n",
+                "store", "morton_interval", "mean ms", "p95 ms"));
+        for (int interval : intervals) {
+            MassiveMotion mm = new MassiveMotion(store.with("morton_interval", String.valueOf(interval)), false);
+            // The sort only runs every interval ticks, so a long warm-up is needed before the JIT has compiled it
+            for (int w = 0; w < MORTON_WARMUP_STAGES; w++) { runStage(mm, bodies); }
+            long[] times = new long[MORTON_STAGES * STAGE_TICKS];
+            for (int m = 0; m < MORTON_STAGES; m++) {
+                System.arraycopy(runStage(mm, bodies), 0, times, m * STAGE_TICKS, STAGE_TICKS);
+            }
+            Arrays.sort(times);
+            double mean = Arrays.stream(times).average().orElse(0) / 1e6;
+            table.append(String.format("%-10s %16d %9.2f %9.2f%n", "mapped", interval, mean,
+                    percentile(times, 0.95) / 1e6));
+            mm.bodyStore.close();
+        }
+        System.out.print(table);
+    }
+
+    /**
+     * Ramps the body count of one backend until it saturates
+     * @param config configuration with the backend to stress
+     * @return capacity of the backend
+     */
+    static Result stress(SimulationConfig config) {
+        MassiveMotion mm = new MassiveMotion(config, false);
+        long budget = config.timer_delay * 1_000_000L;
+        Result result = new Result();
+        result.backend = mm.bodyStore != null ? "mapped" : config.list;
+        System.out.println("Stressing " + result.backend + " with a tick budget of " + config.timer_delay + " ms");
+
+        for (int target = START_BODIES; target <= MAX_BODIES; target *= 2) {
+            long[] times = runStage(mm, target);
+            long p95 = percentile(times, 0.95);
+            for (int attempt = 1; attempt < STAGE_ATTEMPTS && p95 > budget; attempt++) {
+                System.out.printf("  %,d bodies: p95 %.2f ms, over budget, repeating%n", target, p95 / 1e6);
+                times = runStage(mm, target);
+                p95 = percentile(times, 0.95);
+            }
+            System.out.printf("  %,d bodies: p95 %.2f ms%n", target, p95 / 1e6);
+            if (p95 > budget) {
+                result.saturated = target;
+                break;
+            }
+            result.sustained = target;
+            result.p50 = percentile(times, 0.50) / 1e6;
+            result.p95 = p95 / 1e6;
+            result.p99 = percentile(times, 0.99) / 1e6;
+            result.max = times[times.length - 1] / 1e6;
+            result.heap = usedHeap() / (1024.0 * 1024.0);
+        }
+        if (mm.bodyStore != null) { mm.bodyStore.close(); }
+        return result;
+    }
+
+    /**
+     * Runs a stage at a fixed body count
+     * @param mm simulation to advance
+     * @param target body count to hold
+     * @return sorted tick times in ns
+     */
+    private static long[] runStage(MassiveMotion mm, int target) {
+        long[] times = new long[STAGE_TICKS];
+        for (int i = -WARMUP_TICKS; i < STAGE_TICKS; i++) {
+            long start = System.nanoTime();
+            mm.spawnComets((int) (target - mm.bodyCount()));
+            mm.tick();
+            long elapsed = System.nanoTime() - start;
+            if (i >= 0) { times[i] = elapsed; }
+        }
+        Arrays.sort(times);
+        return times;
+    }
+
+    /**
+     * Finds a percentile with the nearest-rank method
+     * @param sorted values sorted in ascending order
+     * @param p percentile in range (0, 1]
+     * @return value at the percentile
+     */
+    static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    /**
+     * @return heap in use after a garbage collection in bytes
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Prints the capacity table
+     * @param timer_delay tick budget in ms
+     * @param results capacity of each backend
+     */
+    private static void printTable(int timer_delay, Result[] results) {
+        System.out.println("\nCapacity with a " + timer_delay + " ms tick budget (percentiles at the sustained count)");
+        System.out.printf("%-10s %12s %12s %9s %9s %9s %9s %9s%n",
+                "list", "sustained", "saturated", "p50 ms", "p95 ms", "p99 ms", "max ms", "heap MB");
+        for (Result r : results) {
+            // A backend that never saturated passed every stage, so its sustained count is the last one tested
+            String saturated = String.format(r.saturated == 0 ? "> %,d" : "%,d",
+                    r.saturated == 0 ? r.sustained : r.saturated);
+            System.out.printf("%-10s %,12d %12s %9.2f %9.2f %9.2f %9.2f %9.1f%n",
+                    r.backend, r.sustained, saturated, r.p50, r.p95, r.p99, r.max, r.heap);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Software rasterizer that draws the canvas in parallel tiles
+ * The canvas is split into square tiles and every body is binned into the tiles its circle overlaps.
+ * Tiles are then drawn in parallel straight into the pixels of one shared image. Each tile only writes the
+ * pixels inside its own bounds, so no two threads ever write the same pixel and no locking is needed.
+ */
+public class TileRasterizer {
+    /** Width and height of a tile in pixels */
+    static final int TILE_SIZE = 64;
+
+    private final int width, height, tiles_x, tiles_y;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final ForkJoinPool pool;
+
+    /** Bodies queued for the next frame, x and y are the top-left corner of the circle's bounding box */
+    private int[] body_x, body_y, body_size, body_color;
+    private int bodyCount;
+    /** Indices of the bodies overlapping each tile, in the order the bodies were added */
+    private final int[][] bins;
+    private final int[] binCounts;
+    private int background;
+
+    /**
+     * Constructs a rasterizer for a canvas
+     * @param width width (x) of the canvas
+     * @param height height (y) of the canvas
+     * @param threads number of threads drawing tiles
+     */
+    public TileRasterizer(int width, int height, int threads) {
+        this.width = width;
+        this.height = height;
+        tiles_x = (width + TILE_SIZE - 1) / TILE_SIZE;
+        tiles_y = (height + TILE_SIZE - 1) / TILE_SIZE;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        pool = new ForkJoinPool(threads);
+        body_x = new int[64];
+        body_y = new int[64];
+        body_size = new int[64];
+        body_color = new int[64];
+        bins = new int[tiles_x * tiles_y][8];
+        binCounts = new int[tiles_x * tiles_y];
+    }
+
+    /**
+     * Starts a new frame, forgetting the bodies of the last one
+     * @param background RGB color the canvas is cleared to
+     */
+    public void begin(int background) {
+        this.background = background;
+        bodyCount = 0;
+    }
+
+    /**
+     * Queues a body for the frame, drawn the same way as Graphics.fillOval centered on the position
+     * Bodies added later are drawn on top of bodies added earlier
+     * @param x x position of the center
+     * @param y y position of the center
+     * @param size diameter in pixels
+     * @param color RGB color
+     */
+    public void add(int x, int y, int size, int color) {
+        if (bodyCount == body_x.length) {
+            int capacity = bodyCount * 2;
+            body_x = Arrays.copyOf(body_x, capacity);
+            body_y = Arrays.copyOf(body_y, capacity);
+            body_size = Arrays.copyOf(body_size, capacity);
+            body_color = Arrays.copyOf(body_color, capacity);
+        }
+        body_x[bodyCount] = x - size / 2;
+        body_y[bodyCount] = y - size / 2;
+        body_size[bodyCount] = size;
+        body_color[bodyCount] = color;
+        bodyCount++;
+    }
+
+    /**
+     * Bins the queued bodies and draws every tile in parallel
+     * @return image holding the frame, reused by the next frame
+     */
+    public BufferedImage render() {
+        binBodies();
+        pool.submit(() -> IntStream.range(0, tiles_x * tiles_y).parallel().forEach(this::drawTile)).join();
+        return image;
+    }
+
+    /**
+     * Puts every queued body in the bin of each tile its bounding box overlaps
+     */
+    private void binBodies() {
+        Arrays.fill(binCounts, 0);
+        for (int b = 0; b < bodyCount; b++) {
+            int left = body_x[b], top = body_y[b], size = body_size[b];
+            if (size <= 0 || left >= width || top >= height || left + size <= 0 || top + size <= 0) { continue; }
+            int first_x = Math.max(left, 0) / TILE_SIZE, last_x = Math.min(left + size - 1, width - 1) / TILE_SIZE;
+            int first_y = Math.max(top, 0) / TILE_SIZE, last_y = Math.min(top + size - 1, height - 1) / TILE_SIZE;
+            for (int ty = first_y; ty <= last_y; ty++) {
+                for (int tx = first_x; tx <= last_x; tx++) {
+                    int tile = ty * tiles_x + tx;
+                    if (binCounts[tile] == bins[tile].length) {
+                        bins[tile] = Arrays.copyOf(bins[tile], bins[tile].length * 2);
+                    }
+                    bins[tile][binCounts[tile]++] = b;
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears one tile and draws the bodies in its bin, clipped to the tile
+     * @param tile index of the tile, row by row
+     */
+    private void drawTile(int tile) {
+        int min_x = (tile % tiles_x) * TILE_SIZE, min_y = (tile / tiles_x) * TILE_SIZE;
+        int max_x = Math.min(min_x + TILE_SIZE, width), max_y = Math.min(min_y + TILE_SIZE, height);
+        for (int y = min_y; y < max_y; y++) {
+            Arrays.fill(pixels, y * width + min_x, y * width + max_x, background);
+        }
+        int[] bin = bins[tile];
+        for (int i = 0; i < binCounts[tile]; i++) {
+            int b = bin[i];
+            int left = body_x[b], top = body_y[b], size = body_size[b], color = body_color[b];
+            double radius = size / 2.0;
+            double center_x = left + radius, center_y = top + radius;
+            int from_y = Math.max(top, min_y), to_y = Math.min(top + size, max_y);
+            for (int y = from_y; y < to_y; y++) {
+                // Half-width of the circle on this row, measured at the pixel center
+                double dy = y + 0.5 - center_y;
+                double half = Math.sqrt(Math.max(radius * radius - dy * dy, 0));
+                int from_x = Math.max((int) Math.ceil(center_x - half - 0.5), min_x);
+                int to_x = Math.min((int) Math.floor(center_x + half - 0.5) + 1, max_x);
+                if (from_x < to_x) { Arrays.fill(pixels, y * width + from_x, y * width + to_x, color); }
+            }
+        }
+    }
+}